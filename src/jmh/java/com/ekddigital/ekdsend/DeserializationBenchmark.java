@@ -0,0 +1,71 @@
+package com.ekddigital.ekdsend;
+
+import com.ekddigital.ekdsend.api.EmailsApi.EmailsListResponse;
+import com.ekddigital.ekdsend.model.Email;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing an email and list pages of different sizes from response bytes
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeserializationBenchmark {
+
+    @Param({ "1", "20", "100" })
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private byte[] email;
+    private byte[] page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = EKDSend.builder("ek_test_benchmark").build().getObjectMapper();
+        email = emailJson(0).getBytes(StandardCharsets.UTF_8);
+        StringBuilder json = new StringBuilder("{\"data\":[");
+        for (int i = 0; i < pageSize; i++) {
+            json.append(i > 0 ? "," : "").append(emailJson(i));
+        }
+        json.append("],\"total\":").append(pageSize * 10).append(",\"limit\":").append(pageSize)
+                .append(",\"offset\":0}");
+        page = json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Email email() throws IOException {
+        return objectMapper.readValue(email, Email.class);
+    }
+
+    @Benchmark
+    public EmailsListResponse page() throws IOException {
+        return objectMapper.readValue(page, EmailsListResponse.class);
+    }
+
+    private static String emailJson(int i) {
+        return "{\"id\":\"em_" + (1_000_000 + i) + "\",\"status\":\"" + (i % 3 == 0 ? "delivered" : "sent") + "\","
+                + "\"from\":\"hello@example.com\",\"to\":[\"user" + i + "@example.com\"],"
+                + "\"subject\":\"Your order has shipped\",\"tags\":[\"orders\",\"shipping\"],"
+                + "\"metadata\":{\"order_id\":\"" + i + "\"},"
+                + "\"created_at\":\"2024-05-01T12:00:00.123Z\",\"sent_at\":\"2024-05-01T12:00:01Z\","
+                + "\"delivered_at\":null,\"unknown_field\":{\"nested\":[1,2,3]}}";
+    }
+}
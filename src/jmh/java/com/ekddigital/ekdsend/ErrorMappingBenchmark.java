@@ -0,0 +1,52 @@
+package com.ekddigital.ekdsend;
+
+import com.ekddigital.ekdsend.exception.EKDSendException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping error responses to exceptions in {@code EKDSend.handleError}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorMappingBenchmark {
+
+    @Param({ "400", "404", "429", "500", "502" })
+    public int status;
+
+    private EKDSend client;
+    private String body;
+
+    @Setup
+    public void setUp() {
+        client = EKDSend.builder("ek_test_benchmark").build();
+        switch (status) {
+            case 400 -> body = "{\"error\":{\"message\":\"Invalid request\",\"code\":\"VALIDATION_ERROR\","
+                    + "\"details\":{\"to\":\"must be a valid email address\",\"subject\":\"is required\"}}}";
+            case 429 -> body = "{\"error\":{\"message\":\"Too many requests\",\"code\":\"RATE_LIMITED\","
+                    + "\"retry_after\":2}}";
+            case 502 -> body = "<html><body><h1>502 Bad Gateway</h1></body></html>";
+            default -> body = "{\"error\":{\"message\":\"Something went wrong\",\"code\":\"ERROR_" + status + "\"}}";
+        }
+    }
+
+    @Benchmark
+    public EKDSendException handleError() {
+        return client.handleError(status, body, "req_123", -1);
+    }
+}
@@ -0,0 +1,122 @@
+package com.ekddigital.ekdsend;
+
+import com.ekddigital.ekdsend.api.EmailsApi.SendEmailRequest;
+import com.ekddigital.ekdsend.exception.EKDSendException;
+import com.ekddigital.ekdsend.model.Email;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.net.ServerSocketFactory;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code EmailsApi.send} end to end against a local MockWebServer, from one thread and from
+ * many
+ * <p>
+ * The server answers immediately, so the numbers are dominated by the client: serialization,
+ * the request pipeline, OkHttp and parsing. MockWebServer runs in the same JVM and its own cost
+ * is included. Its sockets have Nagle's algorithm disabled; otherwise every response waits
+ * for the client's delayed ACK and the benchmark measures TCP timers.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SendBenchmark {
+
+    private static final String EMAIL = "{\"id\":\"em_123\",\"status\":\"queued\",\"from\":\"hello@example.com\","
+            + "\"to\":[\"user@example.com\"],\"subject\":\"Hello\",\"created_at\":\"2024-05-01T12:00:00Z\"}";
+
+    private MockWebServer server;
+    private EKDSend client;
+    private SendEmailRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest recorded) {
+                return new MockResponse().setHeader("Content-Type", "application/json").setBody(EMAIL);
+            }
+        });
+        server.start();
+        client = EKDSend.builder("ek_test_benchmark")
+                .baseUrl(server.url("/v1").toString())
+                .build();
+        request = SendEmailRequest.builder()
+                .from("hello@example.com")
+                .to(List.of("user@example.com"))
+                .subject("Hello")
+                .html("<p>Hello there</p>");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public Email send() throws EKDSendException {
+        return client.emails().send(request);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Email sendConcurrent() throws EKDSendException {
+        return client.emails().send(request);
+    }
+
+    private static final class NoDelayServerSocketFactory extends ServerSocketFactory {
+        @Override
+        public ServerSocket createServerSocket() throws IOException {
+            return new ServerSocket() {
+                @Override
+                public Socket accept() throws IOException {
+                    Socket socket = super.accept();
+                    socket.setTcpNoDelay(true);
+                    return socket;
+                }
+            };
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress address) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.ekddigital.ekdsend;
+
+import com.ekddigital.ekdsend.api.EmailsApi.SendEmailRequest;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okio.Buffer;
+
+/**
+ * Building a send-email request and serializing it the way the client puts it on the wire
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private SendEmailRequest request;
+    private Buffer sink;
+
+    @Setup
+    public void setUp() {
+        objectMapper = EKDSend.builder("ek_test_benchmark").build().getObjectMapper();
+        request = newRequest();
+        sink = new Buffer();
+    }
+
+    /**
+     * Building the request and writing it to a byte array
+     */
+    @Benchmark
+    public byte[] buildAndSerialize() throws IOException {
+        return objectMapper.writeValueAsBytes(newRequest());
+    }
+
+    /**
+     * Streaming a prebuilt request into an Okio buffer, as {@code JsonRequestBody} does
+     */
+    @Benchmark
+    public long streamToSink() throws IOException {
+        sink.clear();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(sink.outputStream())
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            objectMapper.writeValue(generator, request);
+        }
+        return sink.size();
+    }
+
+    private static SendEmailRequest newRequest() {
+        return SendEmailRequest.builder()
+                .from("hello@example.com")
+                .to(List.of("user@example.com", "other@example.com"))
+                .subject("Your order has shipped")
+                .html("<h1>Good news</h1><p>Your order <b>#12345</b> is on its way.</p>")
+                .text("Good news. Your order #12345 is on its way.")
+                .tags(List.of("orders", "shipping"))
+                .metadata(Map.of("order_id", "12345", "customer_id", "cus_987"));
+    }
+}
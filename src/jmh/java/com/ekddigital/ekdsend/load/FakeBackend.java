@@ -0,0 +1,285 @@
+package com.ekddigital.ekdsend.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the EKDSend API with configurable misbehaviour
+ * <p>
+ * Answers {@code /emails}, {@code /sms} and {@code /calls}, including lookups by ID, with
+ * plausible JSON after a log-normally distributed delay. On top of that it can answer a
+ * fraction of requests with 429 and a {@code retry_after}, answer requests with 503 during
+ * periodic bursts, and stall a fraction of responses. Delays are scheduled rather than slept,
+ * so thousands of requests can be pending at once.
+ * </p>
+ */
+public final class FakeBackend implements AutoCloseable {
+
+    private final double medianNanos;
+    private final double sigma;
+    private final double rateLimitRate;
+    private final double retryAfterSeconds;
+    private final long burstEveryNanos;
+    private final long burstLengthNanos;
+    private final double burstErrorRate;
+    private final double slowRate;
+    private final long slowNanos;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong serverErrors = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService ioThreads;
+    private final ScheduledExecutorService timers;
+    private final HttpServer server;
+
+    private FakeBackend(Builder builder) throws IOException {
+        this.medianNanos = builder.median.toNanos();
+        // p99 = median * e^(2.326 sigma)
+        this.sigma = builder.p99.compareTo(builder.median) > 0
+                ? Math.log((double) builder.p99.toNanos() / builder.median.toNanos()) / 2.326
+                : 0;
+        this.rateLimitRate = builder.rateLimitRate;
+        this.retryAfterSeconds = builder.retryAfterSeconds;
+        this.burstEveryNanos = builder.burstEvery.toNanos();
+        this.burstLengthNanos = builder.burstLength.toNanos();
+        this.burstErrorRate = builder.burstErrorRate;
+        this.slowRate = builder.slowRate;
+        this.slowNanos = builder.slow.toNanos();
+        this.ioThreads = Executors.newFixedThreadPool(builder.threads, daemon("fake-backend-io"));
+        this.timers = Executors.newScheduledThreadPool(2, daemon("fake-backend-timer"));
+        // Response headers and body are separate writes; without this Nagle's algorithm holds the
+        // body until the client's delayed ACK and every response gains ~40ms. Read once per JVM.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", builder.port), 1024);
+        server.setExecutor(ioThreads);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Base URL to pass to {@code EKDSend.Builder.baseUrl}
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+    }
+
+    /**
+     * Requests received, including retries
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getRateLimitedCount() {
+        return rateLimited.get();
+    }
+
+    public long getServerErrorCount() {
+        return serverErrors.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        timers.shutdownNow();
+        ioThreads.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try (InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delayNanos = (long) (medianNanos * Math.exp(sigma * random.nextGaussian()));
+        if (slowRate > 0 && random.nextDouble() < slowRate) {
+            delayNanos += slowNanos;
+        }
+
+        int status;
+        String json;
+        if (rateLimitRate > 0 && random.nextDouble() < rateLimitRate) {
+            rateLimited.incrementAndGet();
+            status = 429;
+            json = "{\"error\":{\"message\":\"Too many requests\",\"code\":\"RATE_LIMITED\",\"retry_after\":"
+                    + retryAfterSeconds + "}}";
+        } else if (inBurst() && random.nextDouble() < burstErrorRate) {
+            serverErrors.incrementAndGet();
+            status = 503;
+            json = "{\"error\":{\"message\":\"Service unavailable\",\"code\":\"SERVICE_UNAVAILABLE\"}}";
+        } else {
+            status = 200;
+            json = body(exchange.getRequestMethod(), exchange.getRequestURI().getPath());
+        }
+        if (json == null) {
+            status = 404;
+            json = "{\"error\":{\"message\":\"Not found\",\"code\":\"NOT_FOUND\"}}";
+        }
+
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        int code = status;
+        try {
+            timers.schedule(() -> respond(exchange, code, bytes), delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            exchange.close();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] bytes) {
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.getResponseHeaders().set("x-request-id", "req_fake");
+            exchange.sendResponseHeaders(status, bytes.length);
+            out.write(bytes);
+        } catch (IOException e) {
+            // The client gave up, e.g. after a timeout
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private boolean inBurst() {
+        return burstEveryNanos > 0 && burstLengthNanos > 0
+                && (System.nanoTime() - startNanos) % burstEveryNanos < burstLengthNanos;
+    }
+
+    private String body(String method, String path) {
+        String[] segments = path.split("/");
+        // /v1/{resource}[/{id}[/action]]
+        if (segments.length < 3) {
+            return null;
+        }
+        String resource = segments[2];
+        String id = segments.length > 3 ? segments[3] : null;
+        if (id == null && method.equals("GET")) {
+            return "{\"data\":[" + object(resource, null) + "],\"total\":1,\"limit\":20,\"offset\":0}";
+        }
+        return object(resource, id);
+    }
+
+    private String object(String resource, String id) {
+        String now = Instant.now().toString();
+        long n = sequence.incrementAndGet();
+        switch (resource) {
+            case "emails":
+                return "{\"id\":\"" + (id != null ? id : "em_" + n) + "\",\"status\":\"queued\","
+                        + "\"from\":\"hello@example.com\",\"to\":[\"user@example.com\"],\"subject\":\"Hello\","
+                        + "\"created_at\":\"" + now + "\"}";
+            case "sms":
+                return "{\"id\":\"" + (id != null ? id : "sms_" + n) + "\",\"status\":\"queued\","
+                        + "\"from\":\"+15550000000\",\"to\":\"+15551234567\",\"message\":\"Hello\",\"segments\":1,"
+                        + "\"created_at\":\"" + now + "\"}";
+            case "calls":
+                return "{\"id\":\"" + (id != null ? id : "call_" + n) + "\",\"status\":\"queued\","
+                        + "\"from\":\"+15550000000\",\"to\":\"+15551234567\",\"direction\":\"outbound\","
+                        + "\"created_at\":\"" + now + "\"}";
+            default:
+                return null;
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public static class Builder {
+        private int port;
+        private int threads = 4;
+        private Duration median = Duration.ofMillis(20);
+        private Duration p99 = Duration.ofMillis(80);
+        private double rateLimitRate;
+        private double retryAfterSeconds = 1;
+        private Duration burstEvery = Duration.ZERO;
+        private Duration burstLength = Duration.ZERO;
+        private double burstErrorRate = 1;
+        private double slowRate;
+        private Duration slow = Duration.ofSeconds(10);
+
+        private Builder() {
+        }
+
+        /**
+         * Port to listen on; 0 (the default) picks a free one
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Threads handling requests (default 4); responses are sent from timer threads
+         */
+        public Builder threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Log-normal response time with the given median and 99th percentile
+         * (defaults 20ms and 80ms)
+         */
+        public Builder latency(Duration median, Duration p99) {
+            this.median = median;
+            this.p99 = p99;
+            return this;
+        }
+
+        /**
+         * Answer this fraction of requests with 429 and {@code retry_after} (default none)
+         */
+        public Builder rateLimit(double rate, double retryAfterSeconds) {
+            this.rateLimitRate = rate;
+            this.retryAfterSeconds = retryAfterSeconds;
+            return this;
+        }
+
+        /**
+         * Every {@code every}, answer {@code errorRate} of requests with 503 for
+         * {@code length} (default no bursts)
+         */
+        public Builder errorBursts(Duration every, Duration length, double errorRate) {
+            this.burstEvery = every;
+            this.burstLength = length;
+            this.burstErrorRate = errorRate;
+            return this;
+        }
+
+        /**
+         * Delay this fraction of responses by an extra {@code delay} (default none)
+         */
+        public Builder slowResponses(double rate, Duration delay) {
+            this.slowRate = rate;
+            this.slow = delay;
+            return this;
+        }
+
+        public FakeBackend start() throws IOException {
+            return new FakeBackend(this);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.ekddigital.ekdsend.load;
+
+import com.ekddigital.ekdsend.EKDSend;
+import com.ekddigital.ekdsend.api.EmailsApi.SendEmailRequest;
+import com.ekddigital.ekdsend.api.SmsApi.SendSmsRequest;
+import com.ekddigital.ekdsend.api.VoiceApi.CreateCallRequest;
+import com.ekddigital.ekdsend.exception.EKDSendException;
+import com.ekddigital.ekdsend.metrics.EndpointMetrics;
+import com.ekddigital.ekdsend.metrics.InMemoryMetrics;
+import com.ekddigital.ekdsend.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for the SDK, against {@link FakeBackend} or any EKDSend-compatible
+ * URL
+ * <p>
+ * Requests are started on a Poisson schedule at {@code --rate} per second whether or not
+ * earlier ones have finished, as real traffic would be, and latency is measured from when each
+ * request was due rather than when it was actually sent, so a stalled client shows up in the
+ * percentiles instead of silently lowering the load. Every {@code --report-every} seconds, and
+ * at the end, it prints throughput, latency percentiles, failures by error code and retry
+ * amplification (HTTP attempts per logical request, both as counted by the client).
+ * </p>
+ * <p>
+ * Warmup requests are drained before the measured phase starts, so the summary's counts,
+ * including the fake backend's, cover only requests issued while measuring.
+ * </p>
+ * <p>
+ * Options, with defaults; a single leading dash works too, e.g. {@code -rate 500}:
+ * </p>
+ * <pre>
+ * --rate 200              requests per second
+ * --duration 30           seconds measured, after --warmup 5 seconds
+ * --mix 1:1:0             weights of email sends, SMS sends and call creations
+ * --timeout-ms 30000      client timeout
+ * --max-retries 3         client retries
+ * --max-concurrent 64     client maxConcurrentRequests
+ * --max-outstanding 20000 requests in flight before new ones are dropped
+ * --url URL               drive this API instead of a local fake backend
+ * Fake backend:
+ * --median-ms 20 --p99-ms 80            log-normal latency
+ * --429-rate 0 --retry-after 1          429s with retry_after in seconds
+ * --burst-every 0 --burst-length 0 --burst-error-rate 1   503 bursts, in seconds
+ * --slow-rate 0 --slow-ms 10000         stalled responses
+ * </pre>
+ */
+public final class LoadTest {
+
+    private final EKDSend client;
+    private final InMemoryMetrics metrics;
+    private final double rate;
+    private final int[] mix;
+    private final long maxOutstanding;
+    private final AtomicLong outstanding = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private volatile LatencyHistogram window = new LatencyHistogram();
+    private volatile LatencyHistogram total = new LatencyHistogram();
+    private volatile boolean measuring;
+
+    private LoadTest(EKDSend client, InMemoryMetrics metrics, double rate, int[] mix, long maxOutstanding) {
+        this.client = client;
+        this.metrics = metrics;
+        this.rate = rate;
+        this.mix = mix;
+        this.maxOutstanding = maxOutstanding;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        double rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+        long warmupSeconds = Long.parseLong(options.getOrDefault("warmup", "5"));
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration", "30"));
+        long reportSeconds = Long.parseLong(options.getOrDefault("report-every", "5"));
+        String[] weights = options.getOrDefault("mix", "1:1:0").split(":");
+        int[] mix = new int[3];
+        for (int i = 0; i < 3; i++) {
+            mix[i] = (i > 0 ? mix[i - 1] : 0) + (i < weights.length ? Integer.parseInt(weights[i]) : 0);
+        }
+        if (mix[2] == 0) {
+            throw new IllegalArgumentException("--mix needs at least one non-zero weight");
+        }
+
+        FakeBackend backend = null;
+        String url = options.get("url");
+        if (url == null) {
+            backend = FakeBackend.builder()
+                    .latency(Duration.ofMillis(Long.parseLong(options.getOrDefault("median-ms", "20"))),
+                            Duration.ofMillis(Long.parseLong(options.getOrDefault("p99-ms", "80"))))
+                    .rateLimit(Double.parseDouble(options.getOrDefault("429-rate", "0")),
+                            Double.parseDouble(options.getOrDefault("retry-after", "1")))
+                    .errorBursts(Duration.ofSeconds(Long.parseLong(options.getOrDefault("burst-every", "0"))),
+                            Duration.ofSeconds(Long.parseLong(options.getOrDefault("burst-length", "0"))),
+                            Double.parseDouble(options.getOrDefault("burst-error-rate", "1")))
+                    .slowResponses(Double.parseDouble(options.getOrDefault("slow-rate", "0")),
+                            Duration.ofMillis(Long.parseLong(options.getOrDefault("slow-ms", "10000"))))
+                    .start();
+            url = backend.getBaseUrl();
+        }
+
+        InMemoryMetrics metrics = new InMemoryMetrics();
+        EKDSend client = EKDSend.builder(options.getOrDefault("api-key", "ek_test_loadtest"))
+                .baseUrl(url)
+                .timeout(Duration.ofMillis(Long.parseLong(options.getOrDefault("timeout-ms", "30000"))))
+                .maxRetries(Integer.parseInt(options.getOrDefault("max-retries", "3")))
+                .maxConcurrentRequests(Integer.parseInt(options.getOrDefault("max-concurrent", "64")))
+                .metrics(metrics)
+                .build();
+
+        LoadTest test = new LoadTest(client, metrics, rate, mix,
+                Long.parseLong(options.getOrDefault("max-outstanding", "20000")));
+        System.out.printf("Offering %.0f req/s to %s: %ds warmup, %ds measured%n", rate, url, warmupSeconds,
+                durationSeconds);
+        test.run(warmupSeconds, durationSeconds, reportSeconds, backend);
+        if (backend != null) {
+            backend.close();
+        }
+        System.exit(0);
+    }
+
+    private void run(long warmupSeconds, long durationSeconds, long reportSeconds, FakeBackend backend) {
+        long start = System.nanoTime();
+        long measureStart = start + warmupSeconds * 1_000_000_000L;
+        long end = measureStart + durationSeconds * 1_000_000_000L;
+        long nextReport = start + reportSeconds * 1_000_000_000L;
+        long windowStart = start;
+        long windowIssued = 0;
+        long measuredIssued = 0;
+        long[] attemptsAtStart = new long[2];
+        long[] serverAtStart = new long[3];
+        double meanGapNanos = 1e9 / rate;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        long due = start;
+        while (due < end) {
+            long now = System.nanoTime();
+            if (now < due) {
+                LockSupport.parkNanos(Math.min(due - now, 1_000_000));
+                continue;
+            }
+            if (!measuring && due >= measureStart) {
+                // Let warmup requests and their retries finish so none of them are counted below
+                drain(30_000_000_000L);
+                attemptsAtStart = attempts();
+                serverAtStart = serverCounts(backend);
+                total = new LatencyHistogram();
+                window = new LatencyHistogram();
+                succeeded.reset();
+                failures.clear();
+                dropped.reset();
+                measuring = true;
+                now = System.nanoTime();
+                measureStart = now;
+                end = now + durationSeconds * 1_000_000_000L;
+                due = now;
+                windowStart = now;
+                windowIssued = 0;
+                nextReport = now + reportSeconds * 1_000_000_000L;
+            }
+            issue(due, random.nextInt(mix[2]));
+            windowIssued++;
+            if (measuring) {
+                measuredIssued++;
+            }
+            if (now >= nextReport) {
+                report((now - windowStart) / 1e9, windowIssued);
+                windowStart = now;
+                windowIssued = 0;
+                nextReport += reportSeconds * 1_000_000_000L;
+            }
+            // Poisson arrivals: exponentially distributed gaps
+            due += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+        }
+
+        drain(120_000_000_000L);
+        double seconds = (System.nanoTime() - measureStart) / 1e9;
+        long[] attempts = attempts();
+        long requests = attempts[0] - attemptsAtStart[0];
+        long httpAttempts = attempts[1] - attemptsAtStart[1];
+
+        System.out.println();
+        System.out.println("=== Summary (measured phase) ===");
+        System.out.printf("Offered    %.1f req/s, %d requests (%d dropped at --max-outstanding, %d still in flight)%n",
+                measuredIssued / (double) Math.max(1, durationSeconds), measuredIssued, dropped.sum(),
+                outstanding.get());
+        System.out.printf("Succeeded  %d (%.1f req/s)%n", succeeded.sum(), succeeded.sum() / seconds);
+        System.out.printf("Failed     %d %s%n", failureCount(), failureSummary());
+        System.out.printf("Latency    %s%n", percentiles(total));
+        System.out.printf("Retries    %.3f HTTP attempts per request (%d attempts for %d requests)%n",
+                requests > 0 ? (double) httpAttempts / requests : 0, httpAttempts, requests);
+        if (backend != null) {
+            long[] server = serverCounts(backend);
+            System.out.printf("Backend    %d requests received, %d answered 429, %d answered 503%n",
+                    server[0] - serverAtStart[0], server[1] - serverAtStart[1], server[2] - serverAtStart[2]);
+        }
+        System.out.printf("Pool       %s%n", metrics.getConnections());
+    }
+
+    private void issue(long dueNanos, int pick) {
+        if (outstanding.get() >= maxOutstanding) {
+            dropped.increment();
+            return;
+        }
+        outstanding.incrementAndGet();
+        CompletableFuture<?> future;
+        try {
+            if (pick < mix[0]) {
+                future = client.emails().sendAsync(SendEmailRequest.builder()
+                        .from("load@example.com")
+                        .to(List.of("user@example.com"))
+                        .subject("Load test")
+                        .html("<p>Load test</p>"));
+            } else if (pick < mix[1]) {
+                future = client.sms().sendAsync(SendSmsRequest.builder()
+                        .to("+15551234567")
+                        .message("Load test"));
+            } else {
+                future = client.calls().createAsync(CreateCallRequest.builder()
+                        .to("+15551234567")
+                        .from("+15550000000")
+                        .ttsMessage("Load test"));
+            }
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        boolean measured = measuring;
+        future.whenComplete((value, error) -> {
+            outstanding.decrementAndGet();
+            long latency = System.nanoTime() - dueNanos;
+            if (error == null) {
+                window.record(latency);
+                if (measured) {
+                    total.record(latency);
+                    succeeded.increment();
+                }
+            } else if (measured) {
+                failures.computeIfAbsent(codeOf(error), code -> new LongAdder()).increment();
+            }
+        });
+    }
+
+    private void report(double seconds, long issued) {
+        LatencyHistogram current = window;
+        window = new LatencyHistogram();
+        System.out.printf("%s %6.0f req/s offered, %6.0f req/s ok, in flight %5d | %s%n",
+                measuring ? "[run] " : "[warm]", issued / seconds, current.getCount() / seconds, outstanding.get(),
+                percentiles(current));
+    }
+
+    /**
+     * Wait until every issued request has completed and been recorded, or the timeout passes
+     */
+    private void drain(long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while ((outstanding.get() > 0 || inFlight() > 0) && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(10_000_000);
+        }
+    }
+
+    private long inFlight() {
+        return metrics.getEndpoints().stream().mapToLong(EndpointMetrics::getInFlight).sum();
+    }
+
+    /**
+     * Logical requests completed and HTTP attempts made, over all endpoints
+     */
+    private long[] attempts() {
+        long requests = 0;
+        long attempts = 0;
+        for (EndpointMetrics endpoint : metrics.getEndpoints()) {
+            requests += endpoint.getRequests();
+            attempts += endpoint.getAttempts();
+        }
+        return new long[] { requests, attempts };
+    }
+
+    private static long[] serverCounts(FakeBackend backend) {
+        return backend == null ? new long[3]
+                : new long[] { backend.getRequestCount(), backend.getRateLimitedCount(),
+                        backend.getServerErrorCount() };
+    }
+
+    private long failureCount() {
+        return failures.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    private String failureSummary() {
+        Map<String, Long> counts = new TreeMap<>();
+        failures.forEach((code, count) -> counts.put(code, count.sum()));
+        return counts.isEmpty() ? "" : counts.toString();
+    }
+
+    private static String percentiles(LatencyHistogram histogram) {
+        return "p50=" + histogram.percentile(50).toMillis() + "ms p90=" + histogram.percentile(90).toMillis()
+                + "ms p99=" + histogram.percentile(99).toMillis() + "ms p99.9=" + histogram.percentile(99.9).toMillis()
+                + "ms max=" + histogram.getMax().toMillis() + "ms";
+    }
+
+    private static String codeOf(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof EKDSendException exception && exception.getErrorCode() != null
+                ? exception.getErrorCode()
+                : cause.getClass().getSimpleName();
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("-") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+            }
+            options.put(args[i].substring(args[i].startsWith("--") ? 2 : 1), args[++i]);
+        }
+        return options;
+    }
+}
@@ -1,18 +1,45 @@
 package com.ekddigital.ekdsend;
 
 import com.ekddigital.ekdsend.api.EmailsApi;
+import com.ekddigital.ekdsend.api.RequestModule;
 import com.ekddigital.ekdsend.api.SmsApi;
 import com.ekddigital.ekdsend.api.VoiceApi;
+import com.ekddigital.ekdsend.cache.ResponseCache;
 import com.ekddigital.ekdsend.exception.*;
+import com.ekddigital.ekdsend.json.ModelModule;
+import com.ekddigital.ekdsend.metrics.MetricsEventListener;
+import com.ekddigital.ekdsend.metrics.RequestMetrics;
+import com.ekddigital.ekdsend.resilience.AdaptiveConcurrencyLimiter;
+import com.ekddigital.ekdsend.resilience.AdaptiveRateLimiter;
+import com.ekddigital.ekdsend.resilience.CircuitBreaker;
+import com.ekddigital.ekdsend.resilience.DecorrelatedJitterRetryPolicy;
+import com.ekddigital.ekdsend.resilience.HedgingPolicy;
+import com.ekddigital.ekdsend.resilience.RetryBudget;
+import com.ekddigital.ekdsend.resilience.RetryPolicy;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import okhttp3.*;
+import okio.BufferedSource;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * EKDSend API Client
@@ -39,13 +66,25 @@ public class EKDSend {
     public static final String DEFAULT_BASE_URL = "https://es.ekddigital.com/v1";
     public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
     public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 64;
 
     private final String apiKey;
     private final String baseUrl;
     private final OkHttpClient httpClient;
+    private final OkHttpClient hedgeClient;
+    private final OkHttpClient downloadClient;
     private final ObjectMapper objectMapper;
     private final boolean debug;
-    private final int maxRetries;
+    private final RetryPolicy retryPolicy;
+    private final RetryBudget retryBudget;
+    private final ScheduledExecutorService scheduler;
+    private final AdaptiveRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final HedgingPolicy hedgingPolicy;
+    private final ResponseCache responseCache;
+    private final RequestMetrics metrics;
+    private final ConcurrentHashMap<String, Flight<?>> inFlightGets;
 
     private final EmailsApi emails;
     private final SmsApi sms;
@@ -55,9 +94,28 @@ public class EKDSend {
         this.apiKey = builder.apiKey;
         this.baseUrl = builder.baseUrl;
         this.debug = builder.debug;
-        this.maxRetries = builder.maxRetries;
-
-        this.httpClient = new OkHttpClient.Builder()
+        this.retryPolicy = builder.retryPolicy != null ? builder.retryPolicy
+                : new DecorrelatedJitterRetryPolicy(builder.maxRetries);
+        this.retryBudget = builder.retryBudget != null ? builder.retryBudget : RetryBudget.defaults();
+        this.scheduler = builder.scheduler != null ? builder.scheduler : SharedScheduler.INSTANCE;
+        this.rateLimiter = builder.rateLimiter;
+        this.concurrencyLimiter = builder.concurrencyLimiter;
+        this.circuitBreaker = builder.circuitBreaker;
+        this.hedgingPolicy = builder.hedgingPolicy;
+        this.responseCache = builder.responseCache;
+        this.metrics = builder.metrics;
+        this.inFlightGets = builder.coalesceGets ? new ConcurrentHashMap<>() : null;
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(builder.maxConcurrentRequests);
+        dispatcher.setMaxRequestsPerHost(builder.maxConcurrentRequests);
+
+        OkHttpClient.Builder http = new OkHttpClient.Builder();
+        if (metrics != RequestMetrics.NOOP) {
+            http.eventListenerFactory(new MetricsEventListener(metrics));
+        }
+        this.httpClient = http
+                .dispatcher(dispatcher)
                 .connectTimeout(builder.timeout)
                 .readTimeout(builder.timeout)
                 .writeTimeout(builder.timeout)
@@ -73,8 +131,32 @@ public class EKDSend {
                 })
                 .build();
 
+        // Hedges use their own pool so they can't land on the connection that is being slow
+        this.hedgeClient = hedgingPolicy != null
+                ? httpClient.newBuilder().connectionPool(new ConnectionPool()).build()
+                : null;
+
+        // Files such as recordings may be served from a storage host; the API key only goes to the API
+        HttpUrl api = HttpUrl.parse(baseUrl);
+        String apiHost = api != null ? api.host() : null;
+        OkHttpClient.Builder download = httpClient.newBuilder();
+        download.interceptors().clear();
+        this.downloadClient = download
+                .addInterceptor(chain -> {
+                    Request original = chain.request();
+                    Request.Builder request = original.newBuilder()
+                            .header("User-Agent", "ekdsend-java/" + VERSION);
+                    if (original.url().host().equals(apiHost)) {
+                        request.header("Authorization", "Bearer " + apiKey);
+                    }
+                    return chain.proceed(request.build());
+                })
+                .build();
+
         this.objectMapper = new ObjectMapper()
                 .registerModule(new JavaTimeModule())
+                .registerModule(new ModelModule())
+                .registerModule(new RequestModule())
                 .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
                 .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
@@ -116,85 +198,555 @@ public class EKDSend {
 
     /**
      * Make an HTTP request to the API
+     * <p>
+     * Blocks until {@link #requestAsync} completes; retry waits are scheduled rather than slept,
+     * so only the calling thread waits.
+     * </p>
      */
     public <T> T request(String method, String path, Object body, Class<T> responseType) throws EKDSendException {
-        String url = baseUrl + path;
+        CompletableFuture<T> future = requestAsync(method, path, body, responseType);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new EKDSendException("Request interrupted", 0, "INTERRUPTED", null);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof EKDSendException ekdSendException) {
+                throw ekdSendException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new EKDSendException("Request failed: " + cause.getMessage(), 0, "UNKNOWN_ERROR", null);
+        }
+    }
+
+    /**
+     * Make a non-blocking HTTP request to the API
+     * <p>
+     * The call is dispatched with OkHttp's {@code enqueue}, so no caller thread is held while
+     * the request is in flight. Failed attempts are retried according to the client's
+     * {@link RetryPolicy} and {@link RetryBudget}, with waits scheduled on the client's
+     * {@link ScheduledExecutorService}. The returned future completes exceptionally with an
+     * {@link EKDSendException} mapped exactly as for the blocking call.
+     * </p>
+     * <p>
+     * When enabled with {@link Builder#coalesceGets}, concurrent GETs for the same path share
+     * one in-flight call and receive the same result object. Cancelling one caller's future
+     * leaves the others running; the call itself is cancelled once every caller has cancelled.
+     * </p>
+     */
+    public <T> CompletableFuture<T> requestAsync(String method, String path, Object body, Class<T> responseType) {
+        if (inFlightGets != null && "GET".equals(method)) {
+            return coalesce(path, responseType);
+        }
+        return send(method, path, body, responseType);
+    }
+
+    private <T> CompletableFuture<T> coalesce(String path, Class<T> responseType) {
+        String key = responseType.getName() + ' ' + path;
+        while (true) {
+            @SuppressWarnings("unchecked")
+            Flight<T> flight = (Flight<T>) inFlightGets.get(key);
+            if (flight != null) {
+                CompletableFuture<T> joined = flight.join();
+                if (joined != null) {
+                    return joined;
+                }
+                inFlightGets.remove(key, flight);
+                continue;
+            }
+            Flight<T> created = new Flight<>(key);
+            if (inFlightGets.putIfAbsent(key, created) == null) {
+                created.start(send("GET", path, null, responseType));
+                return created.view();
+            }
+        }
+    }
+
+    private <T> CompletableFuture<T> send(String method, String path, Object body, Class<T> responseType) {
+        Request request;
+        try {
+            request = buildRequest(method, path, body);
+        } catch (EKDSendException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        String circuit = request.tag(String.class);
+        Exchange<T> exchange = new Exchange<>(request, resourceOf(path), circuit, responseType, httpClient, false);
+        retryBudget.onRequest();
+        long hedgeDelayNanos = HedgingPolicy.NO_HEDGE;
+        if (hedgingPolicy != null && "GET".equals(method)) {
+            hedgingPolicy.onRequest();
+            hedgeDelayNanos = hedgingPolicy.delayNanos(circuit);
+        }
+        long startNanos = System.nanoTime();
+        metrics.requestStarted(method, circuit);
+        exchange.attempt();
+        CompletableFuture<T> result = hedgeDelayNanos == HedgingPolicy.NO_HEDGE ? exchange.future
+                : new Hedge<>(exchange, hedgeDelayNanos).result;
+        if (metrics != RequestMetrics.NOOP) {
+            result.whenComplete((value, error) -> metrics.requestCompleted(method, circuit,
+                    System.nanoTime() - startNanos, error == null));
+        }
+        return result;
+    }
+
+    /**
+     * A GET shared by every caller that asked for the same path while it was in flight
+     */
+    private final class Flight<T> {
+        final String key;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        /** Callers that haven't cancelled; the creator counts as the first */
+        final AtomicInteger waiters = new AtomicInteger(1);
+        volatile CompletableFuture<T> call;
+
+        Flight(String key) {
+            this.key = key;
+        }
+
+        void start(CompletableFuture<T> call) {
+            this.call = call;
+            call.whenComplete((value, error) -> {
+                inFlightGets.remove(key, this);
+                if (error != null) {
+                    result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        }
+
+        /**
+         * @return a future for one more caller, or null if every earlier caller has cancelled
+         */
+        CompletableFuture<T> join() {
+            int current;
+            do {
+                current = waiters.get();
+                if (current == 0) {
+                    return null;
+                }
+            } while (!waiters.compareAndSet(current, current + 1));
+            return view();
+        }
+
+        CompletableFuture<T> view() {
+            CompletableFuture<T> view = result.copy();
+            view.whenComplete((value, error) -> {
+                if (view.isCancelled() && waiters.decrementAndGet() == 0) {
+                    inFlightGets.remove(key, this);
+                    call.cancel(true);
+                }
+            });
+            return view;
+        }
+    }
+
+    /**
+     * A GET that gets a second, non-retrying attempt on a separate connection if the first
+     * hasn't answered in time. The first success wins; the hedge's failures are ignored.
+     */
+    private final class Hedge<T> {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final Exchange<T> primary;
+        volatile Exchange<T> secondary;
+
+        Hedge(Exchange<T> primary, long delayNanos) {
+            this.primary = primary;
+            primary.future.whenComplete((value, error) -> {
+                if (error == null) {
+                    result.complete(value);
+                } else if (!primary.future.isCancelled()) {
+                    result.completeExceptionally(error);
+                }
+            });
+            ScheduledFuture<?> timer;
+            try {
+                timer = scheduler.schedule(this::fire, delayNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                timer = null;
+            }
+            ScheduledFuture<?> pending = timer;
+            result.whenComplete((value, error) -> {
+                if (pending != null) {
+                    pending.cancel(false);
+                }
+                primary.future.cancel(true);
+                Exchange<T> hedge = secondary;
+                if (hedge != null) {
+                    hedge.future.cancel(true);
+                }
+            });
+        }
+
+        void fire() {
+            if (result.isDone() || !hedgingPolicy.tryAcquire()) {
+                return;
+            }
+            if (debug) {
+                System.out.println("[EKDSend] Hedging " + primary.request.method() + " " + primary.request.url());
+            }
+            Exchange<T> hedge = new Exchange<>(primary.request, primary.endpoint, primary.circuit,
+                    primary.responseType, hedgeClient, true);
+            secondary = hedge;
+            hedge.future.thenAccept(result::complete);
+            if (result.isDone()) {
+                hedge.future.cancel(true);
+                return;
+            }
+            hedge.attempt();
+        }
+    }
 
+    /**
+     * State of one logical request across all of its attempts
+     */
+    private final class Exchange<T> implements Callback {
+        final Request request;
+        final String endpoint;
+        final String circuit;
+        final Class<T> responseType;
+        final OkHttpClient client;
+        final boolean hedge;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        volatile Call call;
+        int retries;
+        long previousDelayMillis;
+        boolean holdsPermit;
+        boolean holdsCircuit;
+        long sentNanos;
+
+        Exchange(Request request, String endpoint, String circuit, Class<T> responseType, OkHttpClient client,
+                boolean hedge) {
+            this.request = request;
+            this.endpoint = endpoint;
+            this.circuit = circuit;
+            this.responseType = responseType;
+            this.client = client;
+            this.hedge = hedge;
+            future.whenComplete((result, error) -> {
+                Call current = call;
+                if (future.isCancelled() && current != null) {
+                    current.cancel();
+                }
+            });
+        }
+
+        void attempt() {
+            if (future.isDone()) {
+                return;
+            }
+
+            if (circuitBreaker != null) {
+                if (!circuitBreaker.tryAcquire(circuit)) {
+                    future.completeExceptionally(new CircuitOpenException(
+                            "Circuit breaker is open for " + circuit, circuit));
+                    return;
+                }
+                holdsCircuit = true;
+            }
+
+            if (rateLimiter != null) {
+                long waitNanos = rateLimiter.acquire(endpoint);
+                if (waitNanos == AdaptiveRateLimiter.REJECTED) {
+                    finishAttempt(-1, false, false);
+                    future.completeExceptionally(new ThrottledException(
+                            "Client-side rate limit exceeded for " + endpoint, "CLIENT_RATE_LIMITED"));
+                    return;
+                }
+                if (waitNanos > 0) {
+                    schedule(this::admit, waitNanos, TimeUnit.NANOSECONDS, null);
+                    return;
+                }
+            }
+            admit();
+        }
+
+        void admit() {
+            if (concurrencyLimiter == null) {
+                dispatch();
+            } else if (!concurrencyLimiter.acquire(endpoint, this::dispatchWithPermit)) {
+                finishAttempt(-1, false, false);
+                future.completeExceptionally(new ThrottledException(
+                        "Client-side concurrency limit exceeded for " + endpoint, "CONCURRENCY_LIMITED"));
+            }
+        }
+
+        void dispatchWithPermit() {
+            holdsPermit = true;
+            dispatch();
+        }
+
+        void dispatch() {
+            if (future.isDone()) {
+                finishAttempt(-1, false, false);
+                return;
+            }
+            Call next = client.newCall(request);
+            call = next;
+            sentNanos = System.nanoTime();
+            next.enqueue(this);
+        }
+
+        /**
+         * Hand back the limiter and breaker permits of the current attempt
+         *
+         * @param rttNanos round-trip time, or -1 if nothing was sent
+         */
+        private void finishAttempt(long rttNanos, boolean congested, boolean failed) {
+            if (holdsPermit) {
+                holdsPermit = false;
+                concurrencyLimiter.release(endpoint, rttNanos, congested);
+            }
+            if (holdsCircuit) {
+                holdsCircuit = false;
+                if (rttNanos < 0) {
+                    circuitBreaker.onCancel(circuit);
+                } else {
+                    circuitBreaker.onResult(circuit, rttNanos, failed);
+                }
+            }
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            if (e instanceof JsonProcessingException) {
+                // The request body could not be serialized; resending won't help
+                finishAttempt(-1, false, false);
+                future.completeExceptionally(
+                        new EKDSendException("Failed to serialize request body", 0, "SERIALIZATION_ERROR", null));
+                return;
+            }
+            if (call.isCanceled()) {
+                // Hedge losers and abandoned calls say nothing about the server's health
+                finishAttempt(-1, false, false);
+                future.completeExceptionally(connectionError(e));
+                return;
+            }
+            long rttNanos = System.nanoTime() - sentNanos;
+            finishAttempt(rttNanos, true, true);
+            metrics.attemptCompleted(request.method(), circuit, 0, rttNanos);
+            retryOrFail(connectionError(e), -1);
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+            try (response) {
+                int code = response.code();
+
+                if (response.isSuccessful()) {
+                    // Successful bodies are parsed straight off the socket unless they need logging
+                    T result = debug ? parseBody(readBody(response), responseType)
+                            : readValue(response.body(), responseType);
+                    long rttNanos = System.nanoTime() - sentNanos;
+                    finishAttempt(rttNanos, false, false);
+                    metrics.attemptCompleted(request.method(), circuit, code, rttNanos);
+                    if (hedgingPolicy != null && "GET".equals(request.method())) {
+                        hedgingPolicy.record(circuit, rttNanos);
+                    }
+                    if (rateLimiter != null) {
+                        rateLimiter.onResponse(endpoint, code, response.headers(), -1);
+                    }
+                    future.complete(result);
+                    return;
+                }
+
+                String responseBody = readBody(response);
+                long rttNanos = System.nanoTime() - sentNanos;
+                finishAttempt(rttNanos, code == 429 || code >= 500, code >= 500);
+                long retryAfterMillis = retryAfterMillis(response, responseBody);
+                metrics.attemptCompleted(request.method(), circuit, code, rttNanos);
+                if (code == 429) {
+                    metrics.rateLimited(request.method(), circuit, retryAfterMillis);
+                }
+
+                if (rateLimiter != null) {
+                    rateLimiter.onResponse(endpoint, code, response.headers(), retryAfterMillis);
+                }
+
+                retryOrFail(handleError(code, responseBody, response.header("x-request-id"), retryAfterMillis),
+                        retryAfterMillis);
+            } catch (IOException e) {
+                if (call.isCanceled()) {
+                    finishAttempt(-1, false, false);
+                    future.completeExceptionally(connectionError(e));
+                    return;
+                }
+                finishAttempt(System.nanoTime() - sentNanos, true, true);
+                retryOrFail(connectionError(e), -1);
+            } catch (RuntimeException e) {
+                finishAttempt(System.nanoTime() - sentNanos, false, false);
+                future.completeExceptionally(e);
+            }
+        }
+
+        private void retryOrFail(EKDSendException error, long retryAfterMillis) {
+            long delayMillis = future.isCancelled() || hedge ? RetryPolicy.STOP
+                    : retryPolicy.nextDelayMillis(retries + 1, previousDelayMillis, error, retryAfterMillis);
+
+            if (delayMillis < 0 || !retryBudget.tryAcquireRetry()) {
+                future.completeExceptionally(error);
+                return;
+            }
+
+            if (debug) {
+                System.out.println("[EKDSend] Retrying " + request.method() + " " + request.url()
+                        + " in " + delayMillis + "ms");
+            }
+
+            metrics.retryScheduled(request.method(), circuit, delayMillis);
+            retries++;
+            previousDelayMillis = delayMillis;
+            schedule(this::attempt, delayMillis, TimeUnit.MILLISECONDS, error);
+        }
+
+        private void schedule(Runnable task, long delay, TimeUnit unit, EKDSendException fallback) {
+            try {
+                scheduler.schedule(task, delay, unit);
+            } catch (RejectedExecutionException e) {
+                // A rate-limit wait still holds the breaker permit taken by attempt()
+                finishAttempt(-1, false, false);
+                future.completeExceptionally(fallback != null ? fallback
+                        : new EKDSendException("Scheduler rejected request", 0, "SCHEDULER_REJECTED", null));
+            }
+        }
+    }
+
+    private Request buildRequest(String method, String path, Object body) throws EKDSendException {
         if (debug) {
             System.out.println("[EKDSend] " + method + " " + path);
         }
 
         RequestBody requestBody = null;
-        if (body != null) {
+        if (body != null && debug) {
+            // Logging needs the JSON as a string anyway, so send it with a known length
             try {
                 String json = objectMapper.writeValueAsString(body);
-                if (debug) {
-                    System.out.println("[EKDSend] Request: " + json);
-                }
-                requestBody = RequestBody.create(json, MediaType.parse("application/json"));
+                System.out.println("[EKDSend] Request: " + json);
+                requestBody = RequestBody.create(json, JsonRequestBody.JSON);
             } catch (Exception e) {
                 throw new EKDSendException("Failed to serialize request body", 0, "SERIALIZATION_ERROR", null);
             }
+        } else if (body != null) {
+            requestBody = new JsonRequestBody(objectMapper, body);
+        } else if (method.equals("POST") || method.equals("PUT") || method.equals("PATCH")) {
+            // OkHttp rejects body-less POSTs such as /calls/{id}/hangup
+            requestBody = RequestBody.create(new byte[0], null);
         }
 
-        Request request = new Request.Builder()
-                .url(url)
+        // The circuit key doubles as the endpoint name in metrics
+        return new Request.Builder()
+                .url(baseUrl + path)
                 .method(method, requestBody)
+                .tag(String.class, circuitOf(path))
                 .build();
+    }
 
-        EKDSendException lastException = null;
+    private String readBody(Response response) throws IOException {
+        String responseBody = response.body() != null ? response.body().string() : "";
 
-        for (int attempt = 0; attempt <= maxRetries; attempt++) {
-            try (Response response = httpClient.newCall(request).execute()) {
-                String responseBody = response.body() != null ? response.body().string() : "";
-                String requestId = response.header("x-request-id");
+        if (debug) {
+            System.out.println("[EKDSend] Response (" + response.code() + "): " + responseBody);
+        }
+        return responseBody;
+    }
 
-                if (debug) {
-                    System.out.println("[EKDSend] Response (" + response.code() + "): " + responseBody);
-                }
+    /**
+     * Deserialize a response body directly from the connection's byte stream
+     */
+    private <T> T readValue(ResponseBody body, Class<T> responseType) throws IOException {
+        if (responseType == null || body == null) {
+            return null;
+        }
+        BufferedSource source = body.source();
+        if (source.exhausted()) {
+            return null;
+        }
+        return objectMapper.readValue(source.inputStream(), responseType);
+    }
 
-                if (!response.isSuccessful()) {
-                    lastException = handleError(response.code(), responseBody, requestId);
+    private <T> T parseBody(String responseBody, Class<T> responseType) throws IOException {
+        if (responseType != null && !responseBody.isEmpty()) {
+            return objectMapper.readValue(responseBody, responseType);
+        }
+        return null;
+    }
 
-                    // Don't retry auth or validation errors
-                    if (lastException instanceof AuthenticationException ||
-                            lastException instanceof ValidationException) {
-                        throw lastException;
-                    }
+    /**
+     * Endpoint family of a request path, e.g. {@code /calls/call_1/hangup} is {@code /calls}
+     */
+    private static String resourceOf(String path) {
+        int end = path.length();
+        for (int i = 1; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '/' || c == '?') {
+                end = i;
+                break;
+            }
+        }
+        return path.substring(0, end);
+    }
 
-                    // Retry on rate limit or server errors
-                    if (attempt < maxRetries && (response.code() == 429 || response.code() >= 500)) {
-                        Thread.sleep((long) Math.pow(2, attempt) * 1000);
-                        continue;
-                    }
+    /**
+     * Circuit breaker key of a request path: the endpoint family, or the sub-resource pattern
+     * for nested paths, e.g. {@code /calls/call_1/recording} is {@code /calls/{id}/recording}
+     */
+    private static String circuitOf(String path) {
+        int query = path.indexOf('?');
+        String[] segments = (query >= 0 ? path.substring(0, query) : path).split("/");
+        if (segments.length <= 3) {
+            return resourceOf(path);
+        }
+        StringBuilder key = new StringBuilder("/").append(segments[1]).append("/{id}");
+        for (int i = 3; i < segments.length; i++) {
+            key.append('/').append(segments[i]);
+        }
+        return key.toString();
+    }
 
-                    throw lastException;
-                }
+    private static EKDSendException connectionError(IOException e) {
+        return new EKDSendException("Request failed: " + e.getMessage(), 0, "CONNECTION_ERROR", null);
+    }
 
-                if (responseType != null && !responseBody.isEmpty()) {
-                    return objectMapper.readValue(responseBody, responseType);
-                }
-                return null;
-
-            } catch (IOException | InterruptedException e) {
-                if (attempt < maxRetries) {
-                    try {
-                        Thread.sleep((long) Math.pow(2, attempt) * 1000);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new EKDSendException("Request interrupted", 0, "INTERRUPTED", null);
-                    }
-                    continue;
+    /**
+     * Server retry hint in milliseconds, from the {@code Retry-After} header (seconds or
+     * HTTP date) or the {@code retry_after} field of a 429 body; -1 if there is none.
+     */
+    private long retryAfterMillis(Response response, String body) {
+        String header = response.header("Retry-After");
+        if (header != null) {
+            try {
+                return Math.max(0, Long.parseLong(header.trim()) * 1000);
+            } catch (NumberFormatException e) {
+                try {
+                    ZonedDateTime date = ZonedDateTime.parse(header.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                    return Math.max(0, date.toInstant().toEpochMilli() - System.currentTimeMillis());
+                } catch (DateTimeParseException ignored) {
+                    // fall through to the body
                 }
-                throw new EKDSendException("Request failed: " + e.getMessage(), 0, "CONNECTION_ERROR", null);
             }
         }
 
-        throw lastException != null ? lastException
-                : new EKDSendException("Request failed after retries", 0, "UNKNOWN_ERROR", null);
+        if (response.code() == 429) {
+            try {
+                Number retryAfter = objectMapper.readTree(body).path("error").path("retry_after").numberValue();
+                if (retryAfter != null) {
+                    return Math.max(0, (long) (retryAfter.doubleValue() * 1000));
+                }
+            } catch (IOException ignored) {
+                // no usable hint
+            }
+        }
+        return -1;
     }
 
-    private EKDSendException handleError(int statusCode, String body, String requestId) {
+    EKDSendException handleError(int statusCode, String body, String requestId, long retryAfterMillis) {
         try {
             @SuppressWarnings("unchecked")
             Map<String, Object> errorResponse = objectMapper.readValue(body, Map.class);
@@ -215,7 +767,7 @@ public class EKDSend {
                 case 429 -> {
                     int retryAfter = error != null && error.get("retry_after") != null
                             ? ((Number) error.get("retry_after")).intValue()
-                            : 60;
+                            : retryAfterMillis >= 0 ? (int) Math.ceil(retryAfterMillis / 1000.0) : 60;
                     yield new RateLimitException(message, retryAfter, requestId);
                 }
                 default -> new EKDSendException(message, statusCode, code, requestId);
@@ -229,6 +781,75 @@ public class EKDSend {
         return objectMapper;
     }
 
+    /**
+     * Client-side rate limiter, or null if rate limiting is disabled
+     */
+    public AdaptiveRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Adaptive concurrency limiter, or null if it is disabled
+     */
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * Circuit breaker, or null if it is disabled
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Hedging policy for GETs, or null if hedging is disabled
+     */
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    /**
+     * Cache for {@code get()} lookups, or null if it is disabled
+     */
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * HTTP client for downloading files such as call recordings. It shares connections with the
+     * API client but only sends the API key to the API host.
+     */
+    public OkHttpClient getDownloadClient() {
+        return downloadClient;
+    }
+
+    /**
+     * Metrics receiving measurements of every request
+     */
+    public RequestMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Scheduler used for retry waits and other timed work
+     */
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Process-wide daemon scheduler shared by clients that don't supply their own.
+     * Scheduled tasks only enqueue calls, so a single thread is enough.
+     */
+    private static final class SharedScheduler {
+        static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ekdsend-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     /**
      * Builder for EKDSend client
      */
@@ -237,6 +858,17 @@ public class EKDSend {
         private String baseUrl = DEFAULT_BASE_URL;
         private Duration timeout = DEFAULT_TIMEOUT;
         private int maxRetries = DEFAULT_MAX_RETRIES;
+        private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+        private RetryPolicy retryPolicy;
+        private RetryBudget retryBudget;
+        private ScheduledExecutorService scheduler;
+        private AdaptiveRateLimiter rateLimiter;
+        private AdaptiveConcurrencyLimiter concurrencyLimiter;
+        private CircuitBreaker circuitBreaker;
+        private HedgingPolicy hedgingPolicy;
+        private ResponseCache responseCache;
+        private RequestMetrics metrics = RequestMetrics.NOOP;
+        private boolean coalesceGets;
         private boolean debug = false;
 
         private Builder(String apiKey) {
@@ -267,13 +899,108 @@ public class EKDSend {
         }
 
         /**
-         * Set maximum retry attempts
+         * Set maximum retry attempts for the default retry policy
          */
         public Builder maxRetries(int maxRetries) {
             this.maxRetries = maxRetries;
             return this;
         }
 
+        /**
+         * Set a custom retry policy, replacing the default decorrelated-jitter policy.
+         * {@link #maxRetries} is ignored when a policy is set.
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Set the retry budget shared by all requests made through this client
+         */
+        public Builder retryBudget(RetryBudget retryBudget) {
+            this.retryBudget = retryBudget;
+            return this;
+        }
+
+        /**
+         * Set the scheduler used for retry waits. Defaults to a shared daemon scheduler.
+         */
+        public Builder scheduler(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of asynchronous requests in flight at once.
+         * Further calls are queued by the dispatcher until a slot frees up.
+         */
+        public Builder maxConcurrentRequests(int maxConcurrentRequests) {
+            if (maxConcurrentRequests < 1) {
+                throw new IllegalArgumentException("maxConcurrentRequests must be at least 1");
+            }
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
+        /**
+         * Enable client-side rate limiting. Disabled by default.
+         */
+        public Builder rateLimiter(AdaptiveRateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Enable the adaptive in-flight request limit. Disabled by default.
+         */
+        public Builder concurrencyLimiter(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+            this.concurrencyLimiter = concurrencyLimiter;
+            return this;
+        }
+
+        /**
+         * Enable per-endpoint circuit breaking. Disabled by default.
+         */
+        public Builder circuitBreaker(CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * Hedge slow GETs with a second attempt on another connection. Disabled by default.
+         */
+        public Builder hedgingPolicy(HedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = hedgingPolicy;
+            return this;
+        }
+
+        /**
+         * Cache {@code get()} lookups of emails, messages and calls. Disabled by default.
+         */
+        public Builder responseCache(ResponseCache responseCache) {
+            this.responseCache = responseCache;
+            return this;
+        }
+
+        /**
+         * Record per-endpoint latency, retries, status codes and bytes, e.g. with
+         * {@link com.ekddigital.ekdsend.metrics.InMemoryMetrics}. Nothing is recorded by default.
+         */
+        public Builder metrics(RequestMetrics metrics) {
+            this.metrics = metrics != null ? metrics : RequestMetrics.NOOP;
+            return this;
+        }
+
+        /**
+         * Share one in-flight call between concurrent GETs for the same path. Disabled by default:
+         * every caller then receives the same model instance, so callers must not modify it.
+         */
+        public Builder coalesceGets(boolean coalesceGets) {
+            this.coalesceGets = coalesceGets;
+            return this;
+        }
+
         /**
          * Enable debug logging
          */
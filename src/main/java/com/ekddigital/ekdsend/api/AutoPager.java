@@ -0,0 +1,98 @@
+package com.ekddigital.ekdsend.api;
+
+import com.ekddigital.ekdsend.exception.UncheckedEKDSendException;
+import com.ekddigital.ekdsend.model.PaginatedResponse;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates over every item of a paginated list endpoint
+ * <p>
+ * As soon as a page arrives the next one is requested in the background, so by the time the
+ * caller has consumed page N, page N+1 is usually already there. Each call to
+ * {@link #iterator()} starts again from the first page. API errors surface as
+ * {@link UncheckedEKDSendException}.
+ * </p>
+ */
+public class AutoPager<T> implements Iterable<T> {
+
+    private final IntFunction<CompletableFuture<? extends PaginatedResponse<T>>> fetchPage;
+    private final int startOffset;
+
+    AutoPager(IntFunction<CompletableFuture<? extends PaginatedResponse<T>>> fetchPage, int startOffset) {
+        this.fetchPage = fetchPage;
+        this.startOffset = startOffset;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new PageIterator();
+    }
+
+    /**
+     * Sequential stream over every item; closing the stream cancels any pending prefetch
+     */
+    public Stream<T> stream() {
+        PageIterator iterator = new PageIterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(iterator::cancel);
+    }
+
+    private final class PageIterator implements Iterator<T> {
+        private Iterator<T> current = Collections.emptyIterator();
+        private CompletableFuture<? extends PaginatedResponse<T>> nextPage;
+
+        PageIterator() {
+            nextPage = fetchPage.apply(startOffset);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (nextPage == null) {
+                    return false;
+                }
+                PaginatedResponse<T> page = await(nextPage);
+                nextPage = page != null && page.hasMore() && page.getData() != null && !page.getData().isEmpty()
+                        ? fetchPage.apply(page.nextOffset())
+                        : null;
+                current = page != null && page.getData() != null ? page.getData().iterator()
+                        : Collections.emptyIterator();
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        void cancel() {
+            if (nextPage != null) {
+                nextPage.cancel(true);
+                nextPage = null;
+            }
+        }
+
+        private PaginatedResponse<T> await(CompletableFuture<? extends PaginatedResponse<T>> page) {
+            try {
+                return page.join();
+            } catch (CompletionException e) {
+                nextPage = null;
+                throw new UncheckedEKDSendException(BatchSender.asEKDSendException(e));
+            }
+        }
+    }
+}
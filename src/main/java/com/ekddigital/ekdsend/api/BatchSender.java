@@ -0,0 +1,92 @@
+package com.ekddigital.ekdsend.api;
+
+import com.ekddigital.ekdsend.exception.EKDSendException;
+import com.ekddigital.ekdsend.model.BatchResult;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Sends many requests through the async API with a bounded number in flight
+ * <p>
+ * Items are pulled from the input only as slots free up, so a streaming source is never
+ * materialized. Every item produces exactly one {@link BatchResult}; a failed item does not
+ * stop the rest.
+ * </p>
+ */
+final class BatchSender {
+
+    static final int DEFAULT_PARALLELISM = 16;
+
+    private BatchSender() {
+    }
+
+    /**
+     * Send every item and collect the results in input order
+     */
+    static <R, T> List<BatchResult<T>> sendAll(Collection<R> items, int parallelism,
+            Function<R, CompletableFuture<T>> send) throws EKDSendException {
+        // Each slot is written once; send() returns only after every write, which the semaphore publishes
+        List<BatchResult<T>> results = new ArrayList<>(Collections.nCopies(items.size(), null));
+        send(items.iterator(), parallelism, send, result -> results.set(result.getIndex(), result));
+        return results;
+    }
+
+    /**
+     * Send every item, passing each result to {@code sink} as soon as it completes
+     * <p>
+     * {@code sink} is called from I/O threads, concurrently and in completion order.
+     * Returns once every item has completed.
+     * </p>
+     */
+    static <R, T> void send(Iterator<R> items, int parallelism, Function<R, CompletableFuture<T>> send,
+            Consumer<BatchResult<T>> sink) throws EKDSendException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+
+        Semaphore slots = new Semaphore(parallelism);
+        int index = 0;
+        try {
+            while (items.hasNext()) {
+                slots.acquire();
+                int position = index++;
+                CompletableFuture<T> future;
+                try {
+                    future = send.apply(items.next());
+                } catch (RuntimeException e) {
+                    future = CompletableFuture.failedFuture(e);
+                }
+                future.whenComplete((value, error) -> {
+                    try {
+                        sink.accept(error == null ? BatchResult.success(position, value)
+                                : BatchResult.failure(position, asEKDSendException(error)));
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+            slots.acquire(parallelism);
+            slots.release(parallelism);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EKDSendException("Batch interrupted", 0, "INTERRUPTED", null);
+        }
+    }
+
+    static EKDSendException asEKDSendException(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof EKDSendException ekdSendException) {
+            return ekdSendException;
+        }
+        return new EKDSendException("Request failed: " + cause.getMessage(), 0, "UNKNOWN_ERROR", null);
+    }
+}
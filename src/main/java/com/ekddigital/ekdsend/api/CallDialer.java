@@ -0,0 +1,324 @@
+package com.ekddigital.ekdsend.api;
+
+import com.ekddigital.ekdsend.api.VoiceApi.CreateCallRequest;
+import com.ekddigital.ekdsend.exception.EKDSendException;
+import com.ekddigital.ekdsend.model.VoiceCall;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Paced outbound call campaign
+ * <p>
+ * Places calls from a stream of {@link CreateCallRequest}s at no more than
+ * {@code callsPerSecond}, with at most {@code maxActiveCalls} calls active at once. A call
+ * holds its slot until it reaches a terminal {@link VoiceCall#getStatus() status}, learned
+ * either by polling the call (bypassing any response cache) every {@code pollInterval} or from status updates
+ * passed to {@link #onStatusUpdate} (e.g. from the call's webhook). A call whose status can no
+ * longer be polled, e.g. because it no longer exists, also gives up its slot.
+ * </p>
+ * <p>
+ * Pacing runs on the client scheduler, so the request iterator is consumed on that thread and
+ * should not block.
+ * </p>
+ *
+ * <pre>
+ * CallDialer dialer = client.calls().dialer()
+ *         .callsPerSecond(5)
+ *         .maxActiveCalls(50)
+ *         .listener(new CallDialer.Listener() {
+ *             public void onCallEnded(VoiceCall call) { ... }
+ *         })
+ *         .build();
+ * dialer.dial(requests).join();
+ * </pre>
+ */
+public class CallDialer {
+
+    /**
+     * Receives call lifecycle events; methods are called from I/O and scheduler threads
+     */
+    public interface Listener {
+        /** A call was created and now holds a slot */
+        default void onCallCreated(VoiceCall call) {
+        }
+
+        /** A call reached a terminal status and released its slot */
+        default void onCallEnded(VoiceCall call) {
+        }
+
+        /** A call could not be created */
+        default void onCallFailed(CreateCallRequest request, EKDSendException error) {
+        }
+
+        /** Polling a call failed with a client error; it released its slot without a final status */
+        default void onCallLost(String callId, EKDSendException error) {
+        }
+    }
+
+    private final VoiceApi calls;
+    private final ScheduledExecutorService scheduler;
+    private final long periodNanos;
+    private final int maxActiveCalls;
+    private final Duration pollInterval;
+    private final Listener listener;
+
+    private final ConcurrentHashMap<String, Boolean> activeCalls = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, VoiceCall> earlyUpdates = new ConcurrentHashMap<>();
+    private final AtomicInteger creating = new AtomicInteger();
+    private final AtomicInteger slotsInUse = new AtomicInteger();
+    private final AtomicInteger dialed = new AtomicInteger();
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    private Iterator<CreateCallRequest> requests;
+    private ScheduledFuture<?> pump;
+    private volatile boolean exhausted;
+
+    private CallDialer(Builder builder) {
+        this.calls = builder.calls;
+        this.scheduler = builder.scheduler;
+        // scheduleAtFixedRate needs a positive period; above 1e9 calls per second it would round to 0
+        this.periodNanos = Math.max(1, (long) (1_000_000_000L / builder.callsPerSecond));
+        this.maxActiveCalls = builder.maxActiveCalls;
+        this.pollInterval = builder.pollInterval;
+        this.listener = builder.listener;
+    }
+
+    /**
+     * Start dialing
+     *
+     * @return completes once every request has been dialed and every call has ended
+     */
+    public CompletableFuture<Void> dial(Stream<CreateCallRequest> requests) {
+        return dial(requests.iterator());
+    }
+
+    /**
+     * Start dialing
+     *
+     * @return completes once every request has been dialed and every call has ended
+     */
+    public synchronized CompletableFuture<Void> dial(Iterator<CreateCallRequest> requests) {
+        if (this.requests != null) {
+            throw new IllegalStateException("Dialer has already been started");
+        }
+        this.requests = requests;
+        this.pump = scheduler.scheduleAtFixedRate(this::tick, 0, periodNanos, TimeUnit.NANOSECONDS);
+        return done;
+    }
+
+    /**
+     * Stop placing new calls; calls already active are still tracked until they end
+     */
+    public synchronized void stop() {
+        exhausted = true;
+        if (pump != null) {
+            pump.cancel(false);
+        }
+        completeIfIdle();
+    }
+
+    /**
+     * Feed a status update for a call, e.g. parsed from its webhook
+     */
+    public void onStatusUpdate(VoiceCall call) {
+        if (call == null || call.getId() == null || !call.isTerminal()) {
+            return;
+        }
+        // The webhook may beat the create response; keep the update until that call registers
+        if (creating.get() > 0) {
+            earlyUpdates.put(call.getId(), call);
+        }
+        if (end(call)) {
+            earlyUpdates.remove(call.getId());
+        }
+    }
+
+    /**
+     * Calls currently holding a slot, including ones still being created
+     */
+    public int getActiveCalls() {
+        return slotsInUse.get();
+    }
+
+    /**
+     * Calls placed so far
+     */
+    public int getDialedCalls() {
+        return dialed.get();
+    }
+
+    private synchronized void tick() {
+        // An exception escaping a periodic task silently cancels it, so fail the campaign instead
+        try {
+            if (exhausted || slotsInUse.get() >= maxActiveCalls) {
+                return;
+            }
+            if (!requests.hasNext()) {
+                stop();
+                return;
+            }
+
+            CreateCallRequest request = requests.next();
+            slotsInUse.incrementAndGet();
+            dialed.incrementAndGet();
+            creating.incrementAndGet();
+            calls.createAsync(request).whenComplete((call, error) -> {
+                try {
+                    if (error != null) {
+                        release();
+                        listener.onCallFailed(request, BatchSender.asEKDSendException(error));
+                    } else {
+                        created(call);
+                    }
+                } finally {
+                    createFinished();
+                }
+            });
+        } catch (RuntimeException e) {
+            exhausted = true;
+            pump.cancel(false);
+            done.completeExceptionally(e);
+        }
+    }
+
+    private void created(VoiceCall call) {
+        String callId = call.getId();
+        activeCalls.put(callId, Boolean.TRUE);
+        try {
+            listener.onCallCreated(call);
+        } finally {
+            VoiceCall early = earlyUpdates.remove(callId);
+            if (call.isTerminal()) {
+                end(call);
+            } else if (early != null) {
+                end(early);
+            } else if (pollInterval != null) {
+                schedulePoll(callId);
+            }
+        }
+    }
+
+    private synchronized void createFinished() {
+        // Updates still held once nothing is being created belong to calls this dialer never placed
+        if (creating.decrementAndGet() == 0) {
+            earlyUpdates.clear();
+        }
+    }
+
+    private void schedulePoll(String callId) {
+        scheduler.schedule(() -> {
+            if (!activeCalls.containsKey(callId)) {
+                return;
+            }
+            calls.refreshAsync(callId).whenComplete((call, error) -> {
+                if (call != null && call.isTerminal()) {
+                    end(call);
+                } else if (error != null && isClientError(BatchSender.asEKDSendException(error))) {
+                    lose(callId, BatchSender.asEKDSendException(error));
+                } else {
+                    schedulePoll(callId);
+                }
+            });
+        }, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Client errors other than 429, such as an unknown call ID, will not go away by polling again
+     */
+    private static boolean isClientError(EKDSendException error) {
+        int code = error.getStatusCode();
+        return code >= 400 && code < 500 && code != 429;
+    }
+
+    private boolean end(VoiceCall call) {
+        if (activeCalls.remove(call.getId()) != null) {
+            release();
+            listener.onCallEnded(call);
+            return true;
+        }
+        return false;
+    }
+
+    private void lose(String callId, EKDSendException error) {
+        if (activeCalls.remove(callId) != null) {
+            release();
+            listener.onCallLost(callId, error);
+        }
+    }
+
+    private void release() {
+        slotsInUse.decrementAndGet();
+        completeIfIdle();
+    }
+
+    private void completeIfIdle() {
+        if (exhausted && slotsInUse.get() == 0) {
+            done.complete(null);
+        }
+    }
+
+    /**
+     * Builder for {@link CallDialer}
+     */
+    public static class Builder {
+        private final VoiceApi calls;
+        private final ScheduledExecutorService scheduler;
+        private double callsPerSecond = 1;
+        private int maxActiveCalls = 10;
+        private Duration pollInterval = Duration.ofSeconds(5);
+        private Listener listener = new Listener() {
+        };
+
+        Builder(VoiceApi calls, ScheduledExecutorService scheduler) {
+            this.calls = calls;
+            this.scheduler = scheduler;
+        }
+
+        /**
+         * Maximum rate at which new calls are placed
+         */
+        public Builder callsPerSecond(double callsPerSecond) {
+            if (!(callsPerSecond > 0)) {
+                throw new IllegalArgumentException("callsPerSecond must be positive");
+            }
+            this.callsPerSecond = callsPerSecond;
+            return this;
+        }
+
+        /**
+         * Maximum number of calls active at once
+         */
+        public Builder maxActiveCalls(int maxActiveCalls) {
+            if (maxActiveCalls < 1) {
+                throw new IllegalArgumentException("maxActiveCalls must be at least 1");
+            }
+            this.maxActiveCalls = maxActiveCalls;
+            return this;
+        }
+
+        /**
+         * How often active calls are polled for their status, or null to rely solely on
+         * {@link CallDialer#onStatusUpdate}
+         */
+        public Builder pollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+            return this;
+        }
+
+        public Builder listener(Listener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        public CallDialer build() {
+            return new CallDialer(this);
+        }
+    }
+}
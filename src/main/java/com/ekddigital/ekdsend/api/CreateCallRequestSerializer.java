@@ -0,0 +1,43 @@
+package com.ekddigital.ekdsend.api;
+
+import com.ekddigital.ekdsend.api.VoiceApi.CreateCallRequest;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+class CreateCallRequestSerializer extends StdSerializer<CreateCallRequest> {
+
+    private static final SerializedString TO = new SerializedString("to");
+    private static final SerializedString FROM = new SerializedString("from");
+    private static final SerializedString TTS_MESSAGE = new SerializedString("tts_message");
+    private static final SerializedString AUDIO_URL = new SerializedString("audio_url");
+    private static final SerializedString VOICE = new SerializedString("voice");
+    private static final SerializedString LANGUAGE = new SerializedString("language");
+    private static final SerializedString RECORD = new SerializedString("record");
+    private static final SerializedString MACHINE_DETECTION = new SerializedString("machine_detection");
+    private static final SerializedString WEBHOOK_URL = new SerializedString("webhook_url");
+    private static final SerializedString METADATA = new SerializedString("metadata");
+
+    CreateCallRequestSerializer() {
+        super(CreateCallRequest.class);
+    }
+
+    @Override
+    public void serialize(CreateCallRequest request, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(request);
+        JsonFields.string(gen, TO, request.to);
+        JsonFields.string(gen, FROM, request.from);
+        JsonFields.string(gen, TTS_MESSAGE, request.ttsMessage);
+        JsonFields.string(gen, AUDIO_URL, request.audioUrl);
+        JsonFields.string(gen, VOICE, request.voice);
+        JsonFields.string(gen, LANGUAGE, request.language);
+        JsonFields.bool(gen, RECORD, request.record);
+        JsonFields.bool(gen, MACHINE_DETECTION, request.machineDetection);
+        JsonFields.string(gen, WEBHOOK_URL, request.webhookUrl);
+        JsonFields.map(gen, METADATA, request.metadata);
+        gen.writeEndObject();
+    }
+}
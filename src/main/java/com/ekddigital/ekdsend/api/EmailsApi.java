@@ -2,13 +2,19 @@ package com.ekddigital.ekdsend.api;
 
 import com.ekddigital.ekdsend.EKDSend;
 import com.ekddigital.ekdsend.exception.EKDSendException;
+import com.ekddigital.ekdsend.model.BatchResult;
 import com.ekddigital.ekdsend.model.Email;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.ekddigital.ekdsend.model.PaginatedResponse;
 
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Emails API
@@ -16,6 +22,7 @@ import java.util.Map;
 public class EmailsApi {
 
     private final EKDSend client;
+    private volatile StatusWatcher<Email> statusWatcher;
 
     public EmailsApi(EKDSend client) {
         this.client = client;
@@ -25,20 +32,210 @@ public class EmailsApi {
      * Send an email
      */
     public Email send(SendEmailRequest request) throws EKDSendException {
-        return client.request("POST", "/emails", request.toMap(), Email.class);
+        return client.request("POST", "/emails", request, Email.class);
     }
 
     /**
      * Get an email by ID
      */
     public Email get(String emailId) throws EKDSendException {
-        return client.request("GET", "/emails/" + emailId, null, Email.class);
+        return Lookups.get(client, "/emails/" + emailId, Email.class, Email::isFinal);
     }
 
     /**
      * List emails with optional filters
      */
     public EmailsListResponse list(ListEmailsRequest request) throws EKDSendException {
+        return client.request("GET", listPath(request), null, EmailsListResponse.class);
+    }
+
+    /**
+     * Cancel a scheduled email
+     */
+    public Email cancel(String emailId) throws EKDSendException {
+        String path = "/emails/" + emailId;
+        return Lookups.mutate(client, "DELETE", path, path, Email.class);
+    }
+
+    /**
+     * Send many emails, at most 16 at a time
+     *
+     * @return one result per request, in input order
+     */
+    public List<BatchResult<Email>> sendBatch(Collection<SendEmailRequest> requests) throws EKDSendException {
+        return sendBatch(requests, BatchSender.DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Send many emails with at most {@code parallelism} requests in flight
+     *
+     * @return one result per request, in input order
+     */
+    public List<BatchResult<Email>> sendBatch(Collection<SendEmailRequest> requests, int parallelism)
+            throws EKDSendException {
+        return BatchSender.sendAll(requests, parallelism, this::sendAsync);
+    }
+
+    /**
+     * Send a stream of emails with at most {@code parallelism} requests in flight
+     * <p>
+     * Requests are pulled from the iterator only as slots free up, so arbitrarily large
+     * campaigns run in constant memory. {@code onResult} is called from I/O threads as each
+     * send completes and must be thread-safe. Returns once every email has been sent or failed.
+     * </p>
+     */
+    public void sendBatch(Iterator<SendEmailRequest> requests, int parallelism,
+            Consumer<BatchResult<Email>> onResult) throws EKDSendException {
+        BatchSender.send(requests, parallelism, this::sendAsync, onResult);
+    }
+
+    /**
+     * Send a stream of emails with at most {@code parallelism} requests in flight
+     *
+     * @see #sendBatch(Iterator, int, Consumer)
+     */
+    public void sendBatch(Stream<SendEmailRequest> requests, int parallelism,
+            Consumer<BatchResult<Email>> onResult) throws EKDSendException {
+        sendBatch(requests.iterator(), parallelism, onResult);
+    }
+
+    /**
+     * Send an email without blocking the calling thread
+     */
+    public CompletableFuture<Email> sendAsync(SendEmailRequest request) {
+        return client.requestAsync("POST", "/emails", request, Email.class);
+    }
+
+    /**
+     * Get an email by ID without blocking the calling thread
+     */
+    public CompletableFuture<Email> getAsync(String emailId) {
+        return Lookups.getAsync(client, "/emails/" + emailId, Email.class, Email::isFinal);
+    }
+
+    /**
+     * Get an email bypassing the response cache, for status polling
+     */
+    CompletableFuture<Email> refreshAsync(String emailId) {
+        return Lookups.refreshAsync(client, "/emails/" + emailId, Email.class, Email::isFinal);
+    }
+
+    /**
+     * List emails without blocking the calling thread
+     */
+    public CompletableFuture<EmailsListResponse> listAsync(ListEmailsRequest request) {
+        return client.requestAsync("GET", listPath(request), null, EmailsListResponse.class);
+    }
+
+    /**
+     * Cancel a scheduled email without blocking the calling thread
+     */
+    public CompletableFuture<Email> cancelAsync(String emailId) {
+        String path = "/emails/" + emailId;
+        return Lookups.mutateAsync(client, "DELETE", path, path, Email.class);
+    }
+
+    /**
+     * Wait for an email to reach a terminal status
+     * <p>
+     * Uses the shared {@link #statusWatcher()}, which polls all awaited IDs from one
+     * scheduler and refreshes them in batches where it can.
+     * </p>
+     */
+    public CompletableFuture<Email> awaitTerminal(String emailId) {
+        return statusWatcher().await(emailId);
+    }
+
+    /**
+     * The watcher behind {@link #awaitTerminal}; webhook updates can be passed to its
+     * {@code update} method
+     */
+    public StatusWatcher<Email> statusWatcher() {
+        StatusWatcher<Email> watcher = statusWatcher;
+        if (watcher == null) {
+            synchronized (this) {
+                watcher = statusWatcher;
+                if (watcher == null) {
+                    watcher = watcher().build();
+                    statusWatcher = watcher;
+                }
+            }
+        }
+        return watcher;
+    }
+
+    /**
+     * Create a status watcher with custom polling settings
+     */
+    public StatusWatcher.Builder<Email> watcher() {
+        return new StatusWatcher.Builder<>(new StatusWatcher.Source<>() {
+            @Override
+            public CompletableFuture<Email> get(String id) {
+                return refreshAsync(id);
+            }
+
+            @Override
+            public CompletableFuture<EmailsListResponse> list(String status, int offset, int limit) {
+                return listAsync(ListEmailsRequest.builder().status(status).limit(limit).offset(offset));
+            }
+
+            @Override
+            public String id(Email value) {
+                return value.getId();
+            }
+
+            @Override
+            public String status(Email value) {
+                return value.getStatus();
+            }
+
+            @Override
+            public Instant createdAt(Email value) {
+                return value.getCreatedAt();
+            }
+
+            @Override
+            public boolean isTerminal(Email value) {
+                // Opens and clicks can still follow, but an opened email has already been delivered
+                String status = value.getStatus();
+                return value.isTerminal() || "opened".equals(status) || "clicked".equals(status);
+            }
+        }, client.getScheduler());
+    }
+
+    /**
+     * Iterate over all emails matching the filters, page by page
+     * <p>
+     * The next page is fetched in the background while the current one is consumed.
+     * </p>
+     */
+    public AutoPager<Email> autoPagingIterable(ListEmailsRequest request) {
+        return new AutoPager<>(offset -> listAsync(request.withOffset(offset)),
+                request.offset != null ? request.offset : 0);
+    }
+
+    /**
+     * Stream all emails matching the filters, fetching pages in the background
+     */
+    public Stream<Email> stream(ListEmailsRequest request) {
+        return autoPagingIterable(request).stream();
+    }
+
+    /**
+     * Stream all emails matching the filters, fetching pages concurrently
+     * <p>
+     * The first page is fetched before this method returns; its {@code total} determines the
+     * remaining offsets, which are fetched with at most {@code parallelism} pages in flight.
+     * The returned stream is parallel. When {@code ordered} is false items arrive page by page
+     * in completion order, which is fastest for exports that don't need list order.
+     * </p>
+     */
+    public Stream<Email> parallelStream(ListEmailsRequest request, int parallelism, boolean ordered) throws EKDSendException {
+        return ParallelPager.stream(offset -> listAsync(request.withOffset(offset)),
+                request.offset != null ? request.offset : 0, parallelism, ordered);
+    }
+
+    private static String listPath(ListEmailsRequest request) {
         StringBuilder path = new StringBuilder("/emails?");
         List<String> params = new ArrayList<>();
 
@@ -50,31 +247,24 @@ public class EmailsApi {
             params.add("status=" + request.status);
 
         path.append(String.join("&", params));
-        return client.request("GET", path.toString(), null, EmailsListResponse.class);
-    }
-
-    /**
-     * Cancel a scheduled email
-     */
-    public Email cancel(String emailId) throws EKDSendException {
-        return client.request("DELETE", "/emails/" + emailId, null, Email.class);
+        return path.toString();
     }
 
     /**
      * Request builder for sending an email
      */
     public static class SendEmailRequest {
-        private String from;
-        private List<String> to;
-        private String subject;
-        private String html;
-        private String text;
-        private List<String> cc;
-        private List<String> bcc;
-        private String replyTo;
-        private List<String> tags;
-        private Map<String, String> metadata;
-        private String scheduledFor;
+        String from;
+        List<String> to;
+        String subject;
+        String html;
+        String text;
+        List<String> cc;
+        List<String> bcc;
+        String replyTo;
+        List<String> tags;
+        Map<String, String> metadata;
+        String scheduledFor;
 
         private SendEmailRequest() {
         }
@@ -142,33 +332,6 @@ public class EmailsApi {
             this.scheduledFor = scheduledFor;
             return this;
         }
-
-        Map<String, Object> toMap() {
-            Map<String, Object> map = new HashMap<>();
-            if (from != null)
-                map.put("from", from);
-            if (to != null)
-                map.put("to", to);
-            if (subject != null)
-                map.put("subject", subject);
-            if (html != null)
-                map.put("html", html);
-            if (text != null)
-                map.put("text", text);
-            if (cc != null)
-                map.put("cc", cc);
-            if (bcc != null)
-                map.put("bcc", bcc);
-            if (replyTo != null)
-                map.put("reply_to", replyTo);
-            if (tags != null)
-                map.put("tags", tags);
-            if (metadata != null)
-                map.put("metadata", metadata);
-            if (scheduledFor != null)
-                map.put("scheduled_for", scheduledFor);
-            return map;
-        }
     }
 
     /**
@@ -200,51 +363,19 @@ public class EmailsApi {
             this.status = status;
             return this;
         }
+
+        ListEmailsRequest withOffset(int offset) {
+            ListEmailsRequest copy = new ListEmailsRequest();
+            copy.limit = limit;
+            copy.offset = offset;
+            copy.status = status;
+            return copy;
+        }
     }
 
     /**
      * Response for listing emails
      */
-    public static class EmailsListResponse {
-        private List<Email> data;
-        private int total;
-        private int limit;
-        private int offset;
-
-        public List<Email> getData() {
-            return data;
-        }
-
-        public void setData(List<Email> data) {
-            this.data = data;
-        }
-
-        public int getTotal() {
-            return total;
-        }
-
-        public void setTotal(int total) {
-            this.total = total;
-        }
-
-        public int getLimit() {
-            return limit;
-        }
-
-        public void setLimit(int limit) {
-            this.limit = limit;
-        }
-
-        public int getOffset() {
-            return offset;
-        }
-
-        public void setOffset(int offset) {
-            this.offset = offset;
-        }
-
-        public boolean hasMore() {
-            return (offset + limit) < total;
-        }
+    public static class EmailsListResponse extends PaginatedResponse<Email> {
     }
 }
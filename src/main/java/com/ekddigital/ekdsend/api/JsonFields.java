@@ -0,0 +1,58 @@
+package com.ekddigital.ekdsend.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers for the hand-written request serializers
+ * <p>
+ * Field names are passed as pre-encoded {@link SerializableString}s so their quoting and
+ * UTF-8 encoding happen once per class rather than once per request. Null values are skipped.
+ * </p>
+ */
+final class JsonFields {
+
+    private JsonFields() {
+    }
+
+    static void string(JsonGenerator gen, SerializableString name, String value) throws IOException {
+        if (value != null) {
+            gen.writeFieldName(name);
+            gen.writeString(value);
+        }
+    }
+
+    static void bool(JsonGenerator gen, SerializableString name, Boolean value) throws IOException {
+        if (value != null) {
+            gen.writeFieldName(name);
+            gen.writeBoolean(value);
+        }
+    }
+
+    static void strings(JsonGenerator gen, SerializableString name, List<String> values) throws IOException {
+        if (values != null) {
+            gen.writeFieldName(name);
+            gen.writeStartArray(values, values.size());
+            for (int i = 0; i < values.size(); i++) {
+                gen.writeString(values.get(i));
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    static void map(JsonGenerator gen, SerializableString name, Map<String, String> values) throws IOException {
+        if (values != null) {
+            gen.writeFieldName(name);
+            gen.writeStartObject(values, values.size());
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                gen.writeFieldName(entry.getKey());
+                gen.writeString(entry.getValue());
+            }
+            gen.writeEndObject();
+        }
+    }
+}
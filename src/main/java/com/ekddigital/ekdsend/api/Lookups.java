@@ -0,0 +1,94 @@
+package com.ekddigital.ekdsend.api;
+
+import com.ekddigital.ekdsend.EKDSend;
+import com.ekddigital.ekdsend.cache.ResponseCache;
+import com.ekddigital.ekdsend.exception.EKDSendException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+/**
+ * Single-object GETs and mutations routed through the client's {@link ResponseCache}, if any
+ * <p>
+ * A GET only stores its result if no mutation of the same object completed while it was in
+ * flight, so a response read before a change can't be put back after the change dropped it.
+ * </p>
+ */
+final class Lookups {
+
+    private Lookups() {
+    }
+
+    static <T> T get(EKDSend client, String path, Class<T> type, Predicate<T> terminal) throws EKDSendException {
+        ResponseCache cache = client.getResponseCache();
+        if (cache == null) {
+            return client.request("GET", path, null, type);
+        }
+        Object cached = cache.get(path);
+        if (type.isInstance(cached)) {
+            return type.cast(cached);
+        }
+        long generation = cache.generation(path);
+        T value = client.request("GET", path, null, type);
+        store(cache, path, value, terminal, generation);
+        return value;
+    }
+
+    static <T> CompletableFuture<T> getAsync(EKDSend client, String path, Class<T> type, Predicate<T> terminal) {
+        ResponseCache cache = client.getResponseCache();
+        if (cache != null) {
+            Object cached = cache.get(path);
+            if (type.isInstance(cached)) {
+                return CompletableFuture.completedFuture(type.cast(cached));
+            }
+        }
+        return refreshAsync(client, path, type, terminal);
+    }
+
+    /**
+     * Fetch bypassing the cache, storing the fresh result
+     */
+    static <T> CompletableFuture<T> refreshAsync(EKDSend client, String path, Class<T> type, Predicate<T> terminal) {
+        ResponseCache cache = client.getResponseCache();
+        if (cache == null) {
+            return client.requestAsync("GET", path, null, type);
+        }
+        long generation = cache.generation(path);
+        return client.requestAsync("GET", path, null, type).thenApply(value -> {
+            store(cache, path, value, terminal, generation);
+            return value;
+        });
+    }
+
+    /**
+     * Send a request that changes the object at {@code path}, dropping its cached copy
+     */
+    static <T> T mutate(EKDSend client, String method, String path, String objectPath, Class<T> type)
+            throws EKDSendException {
+        try {
+            return client.request(method, path, null, type);
+        } finally {
+            invalidate(client, objectPath);
+        }
+    }
+
+    static <T> CompletableFuture<T> mutateAsync(EKDSend client, String method, String path, String objectPath,
+            Class<T> type) {
+        return client.requestAsync(method, path, null, type)
+                .whenComplete((value, error) -> invalidate(client, objectPath));
+    }
+
+    private static void invalidate(EKDSend client, String path) {
+        ResponseCache cache = client.getResponseCache();
+        if (cache != null) {
+            cache.invalidate(path);
+        }
+    }
+
+    private static <T> void store(ResponseCache cache, String path, T value, Predicate<T> terminal,
+            long generation) {
+        if (value != null) {
+            cache.put(path, value, terminal.test(value), generation);
+        }
+    }
+}
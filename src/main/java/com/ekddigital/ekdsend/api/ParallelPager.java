@@ -0,0 +1,327 @@
+package com.ekddigital.ekdsend.api;
+
+import com.ekddigital.ekdsend.exception.EKDSendException;
+import com.ekddigital.ekdsend.exception.UncheckedEKDSendException;
+import com.ekddigital.ekdsend.model.PaginatedResponse;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Fetches every page of a list endpoint concurrently
+ * <p>
+ * The first page is fetched up front; its {@code total} and {@code limit} give the offsets of
+ * all remaining pages, which are then requested in offset order with at most
+ * {@code parallelism} pages in flight or waiting to be consumed. That bound also caps how many
+ * pages are held in memory.
+ * </p>
+ * <p>
+ * In ordered mode items are streamed in list order. In unordered mode pages are streamed as
+ * they arrive and the spliterator splits across the stream's worker threads, so slow pages
+ * never hold up fast ones.
+ * </p>
+ * <p>
+ * Workers wait for pages as managed blockers, so a {@link ForkJoinPool} can add spare threads
+ * while they are parked. Closing the stream cancels the pages in flight and releases every
+ * waiting worker with a {@code CANCELLED} error; so does the first page that fails.
+ * </p>
+ */
+final class ParallelPager<T> {
+
+    /** Queued in unordered mode once cancelled; every taker puts it back for the next one */
+    private static final Object CLOSED = new Object();
+
+    private final IntFunction<CompletableFuture<? extends PaginatedResponse<T>>> fetchPage;
+    private final int[] offsets;
+    private final int parallelism;
+    private final boolean ordered;
+
+    /** Pending pages by index, ordered mode only; cleared once consumed */
+    private final CompletableFuture<?>[] pages;
+    /** Completed pages or failures in arrival order, unordered mode only */
+    private final BlockingQueue<Object> arrived = new LinkedBlockingQueue<>();
+    private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+    private int requested;
+    private int outstanding;
+    private boolean cancelled;
+
+    private ParallelPager(IntFunction<CompletableFuture<? extends PaginatedResponse<T>>> fetchPage,
+            PaginatedResponse<T> firstPage, int parallelism, boolean ordered) {
+        this.fetchPage = fetchPage;
+        this.parallelism = parallelism;
+        this.ordered = ordered;
+
+        int pageSize = firstPage.getLimit() > 0 ? firstPage.getLimit() : size(firstPage);
+        int remaining = pageSize > 0 && firstPage.getTotal() > firstPage.getOffset() + pageSize
+                ? (firstPage.getTotal() - firstPage.getOffset() - 1) / pageSize
+                : 0;
+        this.offsets = new int[remaining];
+        for (int i = 0; i < remaining; i++) {
+            offsets[i] = firstPage.getOffset() + (i + 1) * pageSize;
+        }
+        this.pages = new CompletableFuture<?>[ordered ? remaining : 0];
+        // In unordered mode the first page is queued like any other and released when taken
+        this.outstanding = ordered ? 0 : 1;
+    }
+
+    /**
+     * Fetch the first page, then stream every item of every page
+     */
+    static <T> Stream<T> stream(IntFunction<CompletableFuture<? extends PaginatedResponse<T>>> fetchPage,
+            int startOffset, int parallelism, boolean ordered) throws EKDSendException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        CompletableFuture<? extends PaginatedResponse<T>> first = fetchPage.apply(startOffset);
+        PaginatedResponse<T> firstPage;
+        try {
+            firstPage = first.get();
+        } catch (InterruptedException e) {
+            first.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new EKDSendException("Listing interrupted", 0, "INTERRUPTED", null);
+        } catch (ExecutionException | CancellationException e) {
+            throw unwrap(e instanceof ExecutionException ? e.getCause() : e);
+        }
+
+        ParallelPager<T> pager = new ParallelPager<>(fetchPage, firstPage, parallelism, ordered);
+        pager.requestMore(0);
+
+        Spliterator<T> spliterator;
+        if (ordered) {
+            spliterator = Spliterators.spliteratorUnknownSize(pager.new OrderedIterator(firstPage),
+                    Spliterator.ORDERED);
+        } else {
+            pager.arrived.add(firstPage);
+            spliterator = pager.new ArrivalSpliterator(new AtomicInteger(pager.offsets.length + 1),
+                    new AtomicInteger(1));
+        }
+        return StreamSupport.stream(spliterator, true).onClose(pager::cancel);
+    }
+
+    /**
+     * Account for {@code consumed} pages and request more while under the parallelism bound
+     */
+    private synchronized void requestMore(int consumed) {
+        outstanding -= consumed;
+        while (!cancelled && outstanding < parallelism && requested < offsets.length) {
+            int index = requested++;
+            outstanding++;
+            CompletableFuture<? extends PaginatedResponse<T>> page = fetchPage.apply(offsets[index]);
+            inFlight.add(page);
+            if (ordered) {
+                pages[index] = page;
+            }
+            page.whenComplete((result, error) -> {
+                inFlight.remove(page);
+                if (!ordered) {
+                    arrived.add(error != null ? error : result);
+                }
+            });
+        }
+    }
+
+    private synchronized void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        for (CompletableFuture<?> page : inFlight) {
+            page.cancel(true);
+        }
+        // Pages that were never requested will never arrive
+        arrived.add(CLOSED);
+    }
+
+    /**
+     * Stop the listing and build the exception to throw from a worker
+     */
+    private UncheckedEKDSendException fail(EKDSendException error) {
+        cancel();
+        return new UncheckedEKDSendException(error);
+    }
+
+    private static EKDSendException unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof CancellationException) {
+            return closed();
+        }
+        return BatchSender.asEKDSendException(cause);
+    }
+
+    private static EKDSendException closed() {
+        return new EKDSendException("Listing closed", 0, "CANCELLED", null);
+    }
+
+    private static EKDSendException interrupted() {
+        return new EKDSendException("Listing interrupted", 0, "INTERRUPTED", null);
+    }
+
+    private static int size(PaginatedResponse<?> page) {
+        return page.getData() != null ? page.getData().size() : 0;
+    }
+
+    private static <T> Iterator<T> items(PaginatedResponse<T> page) {
+        List<T> data = page != null ? page.getData() : null;
+        return data != null ? data.iterator() : Collections.emptyIterator();
+    }
+
+    /**
+     * Walks pages in offset order
+     */
+    private final class OrderedIterator implements Iterator<T> {
+        private Iterator<T> current;
+        private int nextPage;
+
+        OrderedIterator(PaginatedResponse<T> firstPage) {
+            this.current = items(firstPage);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (nextPage >= offsets.length) {
+                    return false;
+                }
+                CompletableFuture<?> page;
+                synchronized (ParallelPager.this) {
+                    page = pages[nextPage];
+                    pages[nextPage++] = null;
+                }
+                current = items(join(page));
+                requestMore(1);
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        /**
+         * Wait for a page; {@code get()} parks as a managed blocker inside a ForkJoin pool
+         */
+        @SuppressWarnings("unchecked")
+        private PaginatedResponse<T> join(CompletableFuture<?> page) {
+            if (page == null) {
+                // Never requested because the listing was closed
+                throw fail(closed());
+            }
+            try {
+                return (PaginatedResponse<T>) page.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw fail(interrupted());
+            } catch (ExecutionException | CancellationException e) {
+                throw fail(unwrap(e instanceof ExecutionException ? e.getCause() : e));
+            }
+        }
+    }
+
+    /**
+     * Hands out pages in arrival order; splits share the same arrival queue
+     */
+    private final class ArrivalSpliterator implements Spliterator<T> {
+        private final AtomicInteger pagesLeft;
+        private final AtomicInteger splits;
+        private Iterator<T> current = Collections.emptyIterator();
+
+        ArrivalSpliterator(AtomicInteger pagesLeft, AtomicInteger splits) {
+            this.pagesLeft = pagesLeft;
+            this.splits = splits;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (!current.hasNext()) {
+                if (pagesLeft.getAndDecrement() <= 0) {
+                    return false;
+                }
+                current = items(take());
+            }
+            action.accept(current.next());
+            return true;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (pagesLeft.get() <= 1 || splits.incrementAndGet() > parallelism) {
+                return null;
+            }
+            return new ArrivalSpliterator(pagesLeft, splits);
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.CONCURRENT | Spliterator.NONNULL;
+        }
+
+        @SuppressWarnings("unchecked")
+        private PaginatedResponse<T> take() {
+            Arrival arrival = new Arrival();
+            try {
+                ForkJoinPool.managedBlock(arrival);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw fail(interrupted());
+            }
+            Object next = arrival.value;
+            if (next == CLOSED) {
+                arrived.add(CLOSED);
+                throw new UncheckedEKDSendException(closed());
+            }
+            if (next instanceof Throwable error) {
+                throw fail(unwrap(error));
+            }
+            requestMore(1);
+            return (PaginatedResponse<T>) next;
+        }
+    }
+
+    /**
+     * Takes the next arrival, letting a ForkJoin pool add a spare worker while this one waits
+     */
+    private final class Arrival implements ForkJoinPool.ManagedBlocker {
+        Object value;
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (value == null) {
+                value = arrived.take();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return value != null || (value = arrived.poll()) != null;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.ekddigital.ekdsend.api;
+
+import com.ekddigital.ekdsend.exception.EKDSendException;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Streams files to disk with parallel range requests
+ * <p>
+ * The first request asks for the first chunk. A server that ignores ranges answers with the
+ * whole file, which is streamed straight to disk. Otherwise the remaining chunks are fetched
+ * with up to {@code parallelism} range requests at once, each written at its offset in
+ * {@code <target>.part} through a shared {@link FileChannel}. Finished chunks are appended to
+ * {@code <target>.part.state} (after the data is forced to disk), so an interrupted download
+ * picks up where it stopped as long as the file's length and ETag (or Last-Modified date) are
+ * unchanged. Without either header a changed file cannot be detected, so the download always
+ * starts over. The part file is renamed to {@code target} once complete.
+ * </p>
+ */
+final class RecordingDownloader {
+
+    static final long DEFAULT_CHUNK_SIZE = 8L * 1024 * 1024;
+    static final int DEFAULT_PARALLELISM = 4;
+
+    private static final int MAX_CHUNK_RETRIES = 3;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes\\s+(\\d+)-(\\d+)/(\\d+|\\*)");
+
+    private final OkHttpClient http;
+    private final ScheduledExecutorService scheduler;
+    private final long chunkSize;
+    private final int parallelism;
+
+    RecordingDownloader(OkHttpClient http, ScheduledExecutorService scheduler, long chunkSize, int parallelism) {
+        this.http = http;
+        this.scheduler = scheduler;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    CompletableFuture<Path> download(String url, Path target) {
+        HttpUrl parsed = url != null ? HttpUrl.parse(url) : null;
+        if (parsed == null) {
+            return CompletableFuture.failedFuture(
+                    new EKDSendException("Invalid recording URL: " + url, 0, "DOWNLOAD_FAILED", null));
+        }
+        Download download = new Download(parsed, target);
+        download.start();
+        return download.future;
+    }
+
+    private final class Download {
+        final HttpUrl url;
+        final Path target;
+        final Path part;
+        final Path state;
+        final CompletableFuture<Path> future = new CompletableFuture<>();
+        final Set<Call> calls = ConcurrentHashMap.newKeySet();
+        FileChannel channel;
+        FileChannel stateChannel;
+        BitSet done;
+        int chunks;
+        long length;
+        int running;
+        final ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+        Download(HttpUrl url, Path target) {
+            this.url = url;
+            this.target = target;
+            this.part = target.resolveSibling(target.getFileName() + ".part");
+            this.state = target.resolveSibling(target.getFileName() + ".part.state");
+            future.whenComplete((path, error) -> {
+                calls.forEach(Call::cancel);
+                closeQuietly();
+            });
+        }
+
+        void start() {
+            enqueue(range(0, chunkSize - 1), new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    fail(e);
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    try (response) {
+                        onProbe(response);
+                    } catch (IOException | RuntimeException e) {
+                        fail(e);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Handle the response to the first-chunk request
+         */
+        private void onProbe(Response response) throws IOException {
+            int code = response.code();
+            if (code == 200) {
+                // No range support: this response is the whole file
+                openPart(true);
+                long written = copy(response.body(), 0);
+                long expected = response.body().contentLength();
+                if (expected >= 0 && written != expected) {
+                    throw new IOException("Recording truncated at " + written + " of " + expected + " bytes");
+                }
+                complete();
+                return;
+            }
+            if (code == 416) {
+                // Empty file
+                openPart(true);
+                complete();
+                return;
+            }
+            if (code != 206) {
+                fail(new EKDSendException("Recording download failed with HTTP " + code, code, "DOWNLOAD_FAILED",
+                        response.header("x-request-id")));
+                return;
+            }
+            long[] range = contentRange(response);
+            length = range[2];
+            chunks = (int) ((length + chunkSize - 1) / chunkSize);
+            String validator = validator(response);
+            resume(validator != null ? length + " " + validator : null);
+            if (!done.get(0)) {
+                copyChunk(0, response.body());
+                markDone(0);
+            }
+            synchronized (this) {
+                for (int i = done.nextClearBit(0); i < chunks; i = done.nextClearBit(i + 1)) {
+                    queue.add(i);
+                }
+            }
+            next();
+        }
+
+        /**
+         * Open the part file, reusing finished chunks if the state file matches {@code header}
+         *
+         * @param header identifies this version of the file, or null if it cannot be resumed
+         */
+        private void resume(String header) throws IOException {
+            done = new BitSet(chunks);
+            boolean fresh = true;
+            if (header != null && Files.exists(state) && Files.exists(part)) {
+                List<String> lines = Files.readAllLines(state, StandardCharsets.US_ASCII);
+                if (!lines.isEmpty() && lines.get(0).equals(header)) {
+                    fresh = false;
+                    for (String line : lines.subList(1, lines.size())) {
+                        try {
+                            done.set(Integer.parseInt(line.trim()));
+                        } catch (NumberFormatException e) {
+                            // Torn last line from a crash; that chunk is fetched again
+                        }
+                    }
+                }
+            }
+            openPart(fresh);
+            if (fresh) {
+                channel.truncate(0);
+            }
+            if (header == null) {
+                Files.deleteIfExists(state);
+                return;
+            }
+            if (fresh) {
+                Files.writeString(state, header + "\n", StandardCharsets.US_ASCII,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            }
+            stateChannel = FileChannel.open(state, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        private void next() {
+            synchronized (this) {
+                if (future.isDone()) {
+                    return;
+                }
+                if (queue.isEmpty() && running == 0) {
+                    try {
+                        complete();
+                    } catch (IOException e) {
+                        fail(e);
+                    }
+                    return;
+                }
+                while (running < parallelism && !queue.isEmpty()) {
+                    running++;
+                    fetch(queue.poll(), 0);
+                }
+            }
+        }
+
+        private void fetch(int chunk, int attempt) {
+            long start = chunk * chunkSize;
+            long end = Math.min(length, start + chunkSize) - 1;
+            enqueue(range(start, end), new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    retry(chunk, attempt, e);
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    try (response) {
+                        if (response.code() != 206) {
+                            throw new IOException("Range request answered with HTTP " + response.code());
+                        }
+                        copyChunk(chunk, response.body());
+                        markDone(chunk);
+                    } catch (IOException e) {
+                        retry(chunk, attempt, e);
+                        return;
+                    } catch (RuntimeException e) {
+                        fail(e);
+                        return;
+                    }
+                    synchronized (Download.this) {
+                        running--;
+                    }
+                    next();
+                }
+            });
+        }
+
+        private void retry(int chunk, int attempt, IOException error) {
+            if (future.isDone()) {
+                return;
+            }
+            if (attempt + 1 >= MAX_CHUNK_RETRIES) {
+                fail(error);
+                return;
+            }
+            try {
+                scheduler.schedule(() -> fetch(chunk, attempt + 1), 500L << attempt, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                fail(error);
+            }
+        }
+
+        private void copyChunk(int chunk, ResponseBody body) throws IOException {
+            long start = chunk * chunkSize;
+            long expected = Math.min(length, start + chunkSize) - start;
+            long written = copy(body, start);
+            if (written != expected) {
+                throw new IOException("Chunk " + chunk + " truncated at " + written + " of " + expected + " bytes");
+            }
+        }
+
+        /**
+         * Stream {@code body} into the part file at {@code position}
+         *
+         * @return bytes written
+         */
+        private long copy(ResponseBody body, long position) throws IOException {
+            BufferedSource source = body.source();
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long offset = position;
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    offset += channel.write(buffer, offset);
+                }
+                buffer.clear();
+            }
+            return offset - position;
+        }
+
+        private void markDone(int chunk) throws IOException {
+            channel.force(false);
+            synchronized (this) {
+                done.set(chunk);
+                if (stateChannel != null) {
+                    stateChannel.write(ByteBuffer.wrap((chunk + "\n").getBytes(StandardCharsets.US_ASCII)));
+                }
+            }
+        }
+
+        private void openPart(boolean truncate) throws IOException {
+            Files.createDirectories(part.toAbsolutePath().getParent());
+            channel = truncate
+                    ? FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                            StandardOpenOption.TRUNCATE_EXISTING)
+                    : FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+
+        private void complete() throws IOException {
+            channel.force(true);
+            closeQuietly();
+            try {
+                Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.deleteIfExists(state);
+            future.complete(target);
+        }
+
+        private void fail(Throwable error) {
+            if (error instanceof EKDSendException) {
+                future.completeExceptionally(error);
+            } else {
+                future.completeExceptionally(new EKDSendException(
+                        "Recording download failed: " + error.getMessage(), 0, "DOWNLOAD_FAILED", null));
+            }
+        }
+
+        private synchronized void closeQuietly() {
+            for (FileChannel open : new FileChannel[] { channel, stateChannel }) {
+                if (open != null) {
+                    try {
+                        open.close();
+                    } catch (IOException e) {
+                        // Nothing more to do with it
+                    }
+                }
+            }
+        }
+
+        private Request range(long start, long end) {
+            return new Request.Builder()
+                    .url(url)
+                    .header("Range", "bytes=" + start + "-" + end)
+                    .build();
+        }
+
+        private void enqueue(Request request, Callback callback) {
+            if (future.isDone()) {
+                return;
+            }
+            Call call = http.newCall(request);
+            calls.add(call);
+            call.enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    calls.remove(call);
+                    callback.onFailure(call, e);
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) throws IOException {
+                    calls.remove(call);
+                    callback.onResponse(call, response);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return start, end and total length from the {@code Content-Range} header
+     */
+    private static long[] contentRange(Response response) throws IOException {
+        String header = response.header("Content-Range");
+        Matcher matcher = header != null ? CONTENT_RANGE.matcher(header.trim()) : null;
+        if (matcher == null || !matcher.matches() || matcher.group(3).equals("*")) {
+            throw new IOException("Missing or invalid Content-Range: " + header);
+        }
+        return new long[] { Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)),
+                Long.parseLong(matcher.group(3)) };
+    }
+
+    /**
+     * What identifies this version of the file for resuming, or null if nothing does
+     */
+    private static String validator(Response response) {
+        String etag = response.header("ETag");
+        return etag != null ? etag : response.header("Last-Modified");
+    }
+}
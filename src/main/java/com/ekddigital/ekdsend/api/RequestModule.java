@@ -0,0 +1,21 @@
+package com.ekddigital.ekdsend.api;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * Jackson module with streaming serializers for the request builders
+ * <p>
+ * Registered on the client's {@code ObjectMapper}. {@link EmailsApi.SendEmailRequest},
+ * {@link SmsApi.SendSmsRequest} and {@link VoiceApi.CreateCallRequest} are written field by
+ * field with pre-encoded names and no intermediate map, skipping null fields.
+ * </p>
+ */
+public class RequestModule extends SimpleModule {
+
+    public RequestModule() {
+        super("EKDSendRequests");
+        addSerializer(EmailsApi.SendEmailRequest.class, new SendEmailRequestSerializer());
+        addSerializer(SmsApi.SendSmsRequest.class, new SendSmsRequestSerializer());
+        addSerializer(VoiceApi.CreateCallRequest.class, new CreateCallRequestSerializer());
+    }
+}
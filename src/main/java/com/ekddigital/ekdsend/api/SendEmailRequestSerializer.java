@@ -0,0 +1,45 @@
+package com.ekddigital.ekdsend.api;
+
+import com.ekddigital.ekdsend.api.EmailsApi.SendEmailRequest;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+class SendEmailRequestSerializer extends StdSerializer<SendEmailRequest> {
+
+    private static final SerializedString FROM = new SerializedString("from");
+    private static final SerializedString TO = new SerializedString("to");
+    private static final SerializedString SUBJECT = new SerializedString("subject");
+    private static final SerializedString HTML = new SerializedString("html");
+    private static final SerializedString TEXT = new SerializedString("text");
+    private static final SerializedString CC = new SerializedString("cc");
+    private static final SerializedString BCC = new SerializedString("bcc");
+    private static final SerializedString REPLY_TO = new SerializedString("reply_to");
+    private static final SerializedString TAGS = new SerializedString("tags");
+    private static final SerializedString METADATA = new SerializedString("metadata");
+    private static final SerializedString SCHEDULED_FOR = new SerializedString("scheduled_for");
+
+    SendEmailRequestSerializer() {
+        super(SendEmailRequest.class);
+    }
+
+    @Override
+    public void serialize(SendEmailRequest request, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(request);
+        JsonFields.string(gen, FROM, request.from);
+        JsonFields.strings(gen, TO, request.to);
+        JsonFields.string(gen, SUBJECT, request.subject);
+        JsonFields.string(gen, HTML, request.html);
+        JsonFields.string(gen, TEXT, request.text);
+        JsonFields.strings(gen, CC, request.cc);
+        JsonFields.strings(gen, BCC, request.bcc);
+        JsonFields.string(gen, REPLY_TO, request.replyTo);
+        JsonFields.strings(gen, TAGS, request.tags);
+        JsonFields.map(gen, METADATA, request.metadata);
+        JsonFields.string(gen, SCHEDULED_FOR, request.scheduledFor);
+        gen.writeEndObject();
+    }
+}
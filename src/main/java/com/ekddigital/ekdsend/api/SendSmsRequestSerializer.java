@@ -0,0 +1,33 @@
+package com.ekddigital.ekdsend.api;
+
+import com.ekddigital.ekdsend.api.SmsApi.SendSmsRequest;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+class SendSmsRequestSerializer extends StdSerializer<SendSmsRequest> {
+
+    private static final SerializedString TO = new SerializedString("to");
+    private static final SerializedString FROM = new SerializedString("from");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString METADATA = new SerializedString("metadata");
+    private static final SerializedString SCHEDULED_FOR = new SerializedString("scheduled_for");
+
+    SendSmsRequestSerializer() {
+        super(SendSmsRequest.class);
+    }
+
+    @Override
+    public void serialize(SendSmsRequest request, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(request);
+        JsonFields.string(gen, TO, request.to);
+        JsonFields.string(gen, FROM, request.from);
+        JsonFields.string(gen, MESSAGE, request.message);
+        JsonFields.map(gen, METADATA, request.metadata);
+        JsonFields.string(gen, SCHEDULED_FOR, request.scheduledFor);
+        gen.writeEndObject();
+    }
+}
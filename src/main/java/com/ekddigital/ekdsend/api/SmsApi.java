@@ -2,12 +2,19 @@ package com.ekddigital.ekdsend.api;
 
 import com.ekddigital.ekdsend.EKDSend;
 import com.ekddigital.ekdsend.exception.EKDSendException;
+import com.ekddigital.ekdsend.model.BatchResult;
+import com.ekddigital.ekdsend.model.PaginatedResponse;
 import com.ekddigital.ekdsend.model.Sms;
 
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * SMS API
@@ -15,6 +22,7 @@ import java.util.Map;
 public class SmsApi {
 
     private final EKDSend client;
+    private volatile StatusWatcher<Sms> statusWatcher;
 
     public SmsApi(EKDSend client) {
         this.client = client;
@@ -24,20 +32,212 @@ public class SmsApi {
      * Send an SMS
      */
     public Sms send(SendSmsRequest request) throws EKDSendException {
-        return client.request("POST", "/sms", request.toMap(), Sms.class);
+        return client.request("POST", "/sms", request, Sms.class);
     }
 
     /**
      * Get an SMS by ID
      */
     public Sms get(String smsId) throws EKDSendException {
-        return client.request("GET", "/sms/" + smsId, null, Sms.class);
+        return Lookups.get(client, "/sms/" + smsId, Sms.class, Sms::isTerminal);
     }
 
     /**
      * List SMS messages with optional filters
      */
     public SmsListResponse list(ListSmsRequest request) throws EKDSendException {
+        return client.request("GET", listPath(request), null, SmsListResponse.class);
+    }
+
+    /**
+     * Cancel a scheduled SMS
+     */
+    public Sms cancel(String smsId) throws EKDSendException {
+        String path = "/sms/" + smsId;
+        return Lookups.mutate(client, "DELETE", path, path, Sms.class);
+    }
+
+    /**
+     * Send one message to many recipients, at most 16 at a time
+     * <p>
+     * {@code message} supplies everything except the recipient, which is taken from
+     * {@code recipients} in turn.
+     * </p>
+     *
+     * @return one result per recipient, in input order
+     */
+    public List<BatchResult<Sms>> sendBulk(SendSmsRequest message, Collection<String> recipients)
+            throws EKDSendException {
+        return sendBulk(message, recipients, BatchSender.DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Send one message to many recipients with at most {@code parallelism} requests in flight
+     *
+     * @return one result per recipient, in input order
+     */
+    public List<BatchResult<Sms>> sendBulk(SendSmsRequest message, Collection<String> recipients, int parallelism)
+            throws EKDSendException {
+        return BatchSender.sendAll(recipients, parallelism, to -> sendAsync(message.withTo(to)));
+    }
+
+    /**
+     * Send one message to a stream of recipients with at most {@code parallelism} requests in flight
+     * <p>
+     * {@code onResult} is called from I/O threads as each send completes and must be
+     * thread-safe. Returns once every message has been sent or failed.
+     * </p>
+     */
+    public void sendBulk(SendSmsRequest message, Iterator<String> recipients, int parallelism,
+            Consumer<BatchResult<Sms>> onResult) throws EKDSendException {
+        BatchSender.send(recipients, parallelism, to -> sendAsync(message.withTo(to)), onResult);
+    }
+
+    /**
+     * Send many SMS messages with at most {@code parallelism} requests in flight
+     *
+     * @return one result per request, in input order
+     */
+    public List<BatchResult<Sms>> sendBatch(Collection<SendSmsRequest> requests, int parallelism)
+            throws EKDSendException {
+        return BatchSender.sendAll(requests, parallelism, this::sendAsync);
+    }
+
+    /**
+     * Send an SMS without blocking the calling thread
+     */
+    public CompletableFuture<Sms> sendAsync(SendSmsRequest request) {
+        return client.requestAsync("POST", "/sms", request, Sms.class);
+    }
+
+    /**
+     * Get an SMS by ID without blocking the calling thread
+     */
+    public CompletableFuture<Sms> getAsync(String smsId) {
+        return Lookups.getAsync(client, "/sms/" + smsId, Sms.class, Sms::isTerminal);
+    }
+
+    /**
+     * Get an SMS bypassing the response cache, for status polling
+     */
+    CompletableFuture<Sms> refreshAsync(String smsId) {
+        return Lookups.refreshAsync(client, "/sms/" + smsId, Sms.class, Sms::isTerminal);
+    }
+
+    /**
+     * List SMS messages without blocking the calling thread
+     */
+    public CompletableFuture<SmsListResponse> listAsync(ListSmsRequest request) {
+        return client.requestAsync("GET", listPath(request), null, SmsListResponse.class);
+    }
+
+    /**
+     * Cancel a scheduled SMS without blocking the calling thread
+     */
+    public CompletableFuture<Sms> cancelAsync(String smsId) {
+        String path = "/sms/" + smsId;
+        return Lookups.mutateAsync(client, "DELETE", path, path, Sms.class);
+    }
+
+    /**
+     * Wait for an SMS to reach a terminal status
+     * <p>
+     * Uses the shared {@link #statusWatcher()}, which polls all awaited IDs from one
+     * scheduler and refreshes them in batches where it can.
+     * </p>
+     */
+    public CompletableFuture<Sms> awaitTerminal(String smsId) {
+        return statusWatcher().await(smsId);
+    }
+
+    /**
+     * The watcher behind {@link #awaitTerminal}; webhook updates can be passed to its
+     * {@code update} method
+     */
+    public StatusWatcher<Sms> statusWatcher() {
+        StatusWatcher<Sms> watcher = statusWatcher;
+        if (watcher == null) {
+            synchronized (this) {
+                watcher = statusWatcher;
+                if (watcher == null) {
+                    watcher = watcher().build();
+                    statusWatcher = watcher;
+                }
+            }
+        }
+        return watcher;
+    }
+
+    /**
+     * Create a status watcher with custom polling settings
+     */
+    public StatusWatcher.Builder<Sms> watcher() {
+        return new StatusWatcher.Builder<>(new StatusWatcher.Source<>() {
+            @Override
+            public CompletableFuture<Sms> get(String id) {
+                return refreshAsync(id);
+            }
+
+            @Override
+            public CompletableFuture<SmsListResponse> list(String status, int offset, int limit) {
+                return listAsync(ListSmsRequest.builder().status(status).limit(limit).offset(offset));
+            }
+
+            @Override
+            public String id(Sms value) {
+                return value.getId();
+            }
+
+            @Override
+            public String status(Sms value) {
+                return value.getStatus();
+            }
+
+            @Override
+            public Instant createdAt(Sms value) {
+                return value.getCreatedAt();
+            }
+
+            @Override
+            public boolean isTerminal(Sms value) {
+                return value.isTerminal();
+            }
+        }, client.getScheduler());
+    }
+
+    /**
+     * Iterate over all SMS messages matching the filters, page by page
+     * <p>
+     * The next page is fetched in the background while the current one is consumed.
+     * </p>
+     */
+    public AutoPager<Sms> autoPagingIterable(ListSmsRequest request) {
+        return new AutoPager<>(offset -> listAsync(request.withOffset(offset)),
+                request.offset != null ? request.offset : 0);
+    }
+
+    /**
+     * Stream all SMS messages matching the filters, fetching pages in the background
+     */
+    public Stream<Sms> stream(ListSmsRequest request) {
+        return autoPagingIterable(request).stream();
+    }
+
+    /**
+     * Stream all SMS messages matching the filters, fetching pages concurrently
+     * <p>
+     * The first page is fetched before this method returns; its {@code total} determines the
+     * remaining offsets, which are fetched with at most {@code parallelism} pages in flight.
+     * The returned stream is parallel. When {@code ordered} is false items arrive page by page
+     * in completion order, which is fastest for exports that don't need list order.
+     * </p>
+     */
+    public Stream<Sms> parallelStream(ListSmsRequest request, int parallelism, boolean ordered) throws EKDSendException {
+        return ParallelPager.stream(offset -> listAsync(request.withOffset(offset)),
+                request.offset != null ? request.offset : 0, parallelism, ordered);
+    }
+
+    private static String listPath(ListSmsRequest request) {
         StringBuilder path = new StringBuilder("/sms?");
         List<String> params = new ArrayList<>();
 
@@ -49,25 +249,18 @@ public class SmsApi {
             params.add("status=" + request.status);
 
         path.append(String.join("&", params));
-        return client.request("GET", path.toString(), null, SmsListResponse.class);
-    }
-
-    /**
-     * Cancel a scheduled SMS
-     */
-    public Sms cancel(String smsId) throws EKDSendException {
-        return client.request("DELETE", "/sms/" + smsId, null, Sms.class);
+        return path.toString();
     }
 
     /**
      * Request builder for sending SMS
      */
     public static class SendSmsRequest {
-        private String to;
-        private String from;
-        private String message;
-        private Map<String, String> metadata;
-        private String scheduledFor;
+        String to;
+        String from;
+        String message;
+        Map<String, String> metadata;
+        String scheduledFor;
 
         private SendSmsRequest() {
         }
@@ -101,19 +294,21 @@ public class SmsApi {
             return this;
         }
 
-        Map<String, Object> toMap() {
-            Map<String, Object> map = new HashMap<>();
-            if (to != null)
-                map.put("to", to);
-            if (from != null)
-                map.put("from", from);
-            if (message != null)
-                map.put("message", message);
-            if (metadata != null)
-                map.put("metadata", metadata);
-            if (scheduledFor != null)
-                map.put("scheduled_for", scheduledFor);
-            return map;
+        /**
+         * Number of segments the message will be billed as, computed locally
+         */
+        public int segments() {
+            return message != null ? SmsSegments.count(message) : 0;
+        }
+
+        SendSmsRequest withTo(String to) {
+            SendSmsRequest copy = new SendSmsRequest();
+            copy.to = to;
+            copy.from = from;
+            copy.message = message;
+            copy.metadata = metadata;
+            copy.scheduledFor = scheduledFor;
+            return copy;
         }
     }
 
@@ -146,51 +341,19 @@ public class SmsApi {
             this.status = status;
             return this;
         }
+
+        ListSmsRequest withOffset(int offset) {
+            ListSmsRequest copy = new ListSmsRequest();
+            copy.limit = limit;
+            copy.offset = offset;
+            copy.status = status;
+            return copy;
+        }
     }
 
     /**
      * Response for listing SMS messages
      */
-    public static class SmsListResponse {
-        private List<Sms> data;
-        private int total;
-        private int limit;
-        private int offset;
-
-        public List<Sms> getData() {
-            return data;
-        }
-
-        public void setData(List<Sms> data) {
-            this.data = data;
-        }
-
-        public int getTotal() {
-            return total;
-        }
-
-        public void setTotal(int total) {
-            this.total = total;
-        }
-
-        public int getLimit() {
-            return limit;
-        }
-
-        public void setLimit(int limit) {
-            this.limit = limit;
-        }
-
-        public int getOffset() {
-            return offset;
-        }
-
-        public void setOffset(int offset) {
-            this.offset = offset;
-        }
-
-        public boolean hasMore() {
-            return (offset + limit) < total;
-        }
+    public static class SmsListResponse extends PaginatedResponse<Sms> {
     }
 }
@@ -0,0 +1,115 @@
+package com.ekddigital.ekdsend.api;
+
+/**
+ * Local SMS encoding and segment calculator
+ * <p>
+ * Classifies a message as GSM-7 (GSM 03.38 default alphabet plus extension table) or UCS-2
+ * and counts the segments it will be split into, without allocating. GSM-7 allows 160
+ * septets in a single segment and 153 per segment of a concatenated message; extension
+ * characters such as the euro sign or curly braces take two septets and are never split across
+ * segments. UCS-2 allows 70 characters, or 67 per concatenated segment, and never splits a
+ * surrogate pair.
+ * </p>
+ */
+public final class SmsSegments {
+
+    public enum Encoding {
+        GSM_7, UCS_2
+    }
+
+    public static final int GSM_7_SINGLE = 160;
+    public static final int GSM_7_MULTI = 153;
+    public static final int UCS_2_SINGLE = 70;
+    public static final int UCS_2_MULTI = 67;
+
+    /** GSM 03.38 default alphabet and extension table, written as escapes to keep the source ASCII */
+    private static final String BASIC = "@\u00A3$\u00A5\u00E8\u00E9\u00F9\u00EC\u00F2\u00C7\n\u00D8\u00F8\r\u00C5\u00E5\u0394_\u03A6\u0393\u039B\u03A9\u03A0\u03A8\u03A3\u0398\u039E\u00C6\u00E6\u00DF\u00C9 !\"#\u00A4%&'()*+,-./0123456789:;<=>?"
+            + "\u00A1ABCDEFGHIJKLMNOPQRSTUVWXYZ\u00C4\u00D6\u00D1\u00DC\u00A7\u00BFabcdefghijklmnopqrstuvwxyz\u00E4\u00F6\u00F1\u00FC\u00E0";
+    private static final String EXTENDED = "\f^{}\\[~]|\u20AC";
+
+    /** Septets per character, 0 if the character is not in the GSM-7 alphabet */
+    private static final byte[] SEPTETS = new byte['\u20AC' + 1];
+
+    static {
+        for (int i = 0; i < BASIC.length(); i++) {
+            SEPTETS[BASIC.charAt(i)] = 1;
+        }
+        for (int i = 0; i < EXTENDED.length(); i++) {
+            SEPTETS[EXTENDED.charAt(i)] = 2;
+        }
+    }
+
+    private SmsSegments() {
+    }
+
+    /**
+     * Encoding the message will be sent with
+     */
+    public static Encoding encoding(CharSequence message) {
+        return septets(message) >= 0 ? Encoding.GSM_7 : Encoding.UCS_2;
+    }
+
+    /**
+     * Length in encoding units: septets for GSM-7, UTF-16 code units for UCS-2
+     */
+    public static int units(CharSequence message) {
+        int septets = septets(message);
+        return septets >= 0 ? septets : message.length();
+    }
+
+    /**
+     * Number of segments the message will be billed as; an empty message is one segment
+     */
+    public static int count(CharSequence message) {
+        int septets = septets(message);
+        if (septets >= 0) {
+            if (septets <= GSM_7_SINGLE) {
+                return 1;
+            }
+            int segments = 1;
+            int used = 0;
+            for (int i = 0; i < message.length(); i++) {
+                int cost = SEPTETS[message.charAt(i)];
+                if (used + cost > GSM_7_MULTI) {
+                    segments++;
+                    used = 0;
+                }
+                used += cost;
+            }
+            return segments;
+        }
+
+        int length = message.length();
+        if (length <= UCS_2_SINGLE) {
+            return 1;
+        }
+        int segments = 1;
+        int used = 0;
+        for (int i = 0; i < length; i++) {
+            int cost = Character.isHighSurrogate(message.charAt(i)) && i + 1 < length
+                    && Character.isLowSurrogate(message.charAt(i + 1)) ? 2 : 1;
+            if (used + cost > UCS_2_MULTI) {
+                segments++;
+                used = 0;
+            }
+            used += cost;
+            i += cost - 1;
+        }
+        return segments;
+    }
+
+    /**
+     * Total GSM-7 septets, or -1 if the message needs UCS-2
+     */
+    private static int septets(CharSequence message) {
+        int total = 0;
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c >= SEPTETS.length || SEPTETS[c] == 0) {
+                return -1;
+            }
+            total += SEPTETS[c];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,362 @@
+package com.ekddigital.ekdsend.api;
+
+import com.ekddigital.ekdsend.exception.EKDSendException;
+import com.ekddigital.ekdsend.model.PaginatedResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits for many messages or calls to reach a terminal status using one scheduler
+ * <p>
+ * Every watched ID is polled on its own schedule: {@code minInterval} for fresh objects,
+ * growing with age ({@code ageFactor} of the object's age, so a message sent ten minutes ago is
+ * checked about once a minute) up to {@code maxInterval}, with longer waits for scheduled
+ * messages and calls in progress and after errors. IDs that fall due together and share a
+ * status are refreshed with a list request filtered by that status: every ID still listed is
+ * unchanged, and only the IDs that have left the status are fetched individually. The future
+ * returned by {@link #await} completes with the object once its status is terminal.
+ * </p>
+ * <p>
+ * Status updates received elsewhere, e.g. from webhooks, can be passed to {@link #update} to
+ * complete waits without polling.
+ * </p>
+ */
+public class StatusWatcher<T> {
+
+    /**
+     * API-specific lookups used by the watcher
+     */
+    interface Source<T> {
+        CompletableFuture<T> get(String id);
+
+        CompletableFuture<? extends PaginatedResponse<T>> list(String status, int offset, int limit);
+
+        String id(T value);
+
+        String status(T value);
+
+        Instant createdAt(T value);
+
+        boolean isTerminal(T value);
+    }
+
+    private final Source<T> source;
+    private final ScheduledExecutorService scheduler;
+    private final long minIntervalNanos;
+    private final long maxIntervalNanos;
+    private final double ageFactor;
+    private final int minBatch;
+    private final int pageSize;
+    private final int maxPages;
+    private final long tickMillis;
+    private final Map<String, Watch<T>> watches = new HashMap<>();
+    private ScheduledFuture<?> ticker;
+
+    private StatusWatcher(Builder<T> builder) {
+        this.source = builder.source;
+        this.scheduler = builder.scheduler;
+        this.minIntervalNanos = builder.minInterval.toNanos();
+        this.maxIntervalNanos = Math.max(minIntervalNanos, builder.maxInterval.toNanos());
+        this.ageFactor = builder.ageFactor;
+        this.minBatch = builder.minBatch;
+        this.pageSize = builder.pageSize;
+        this.maxPages = builder.maxPages;
+        this.tickMillis = Math.max(10, Math.min(250, builder.minInterval.toMillis() / 2));
+    }
+
+    /**
+     * Wait for {@code id} to reach a terminal status
+     * <p>
+     * Concurrent waits for the same ID share one future. Cancelling it stops watching the ID.
+     * Client errors such as an unknown ID complete the future exceptionally; other errors are
+     * retried with backoff.
+     * </p>
+     */
+    public CompletableFuture<T> await(String id) {
+        Watch<T> watch;
+        synchronized (this) {
+            watch = watches.get(id);
+            if (watch != null) {
+                return watch.future;
+            }
+            watch = new Watch<>(id, System.nanoTime());
+            watches.put(id, watch);
+            if (ticker == null) {
+                ticker = scheduler.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        Watch<T> added = watch;
+        added.future.whenComplete((value, error) -> remove(added));
+        return added.future;
+    }
+
+    /**
+     * Apply a status update obtained elsewhere, e.g. from a webhook
+     */
+    public void update(T value) {
+        if (value == null) {
+            return;
+        }
+        Watch<T> watch;
+        synchronized (this) {
+            watch = watches.get(source.id(value));
+        }
+        if (watch != null) {
+            apply(watch, value);
+        }
+    }
+
+    /**
+     * Number of IDs currently being watched
+     */
+    public synchronized int getWatchedCount() {
+        return watches.size();
+    }
+
+    /**
+     * Stop watching; pending futures are cancelled
+     */
+    public void stop() {
+        List<Watch<T>> pending;
+        synchronized (this) {
+            pending = new ArrayList<>(watches.values());
+        }
+        for (Watch<T> watch : pending) {
+            watch.future.cancel(false);
+        }
+    }
+
+    private synchronized void remove(Watch<T> watch) {
+        watches.remove(watch.id, watch);
+        if (watches.isEmpty() && ticker != null) {
+            ticker.cancel(false);
+            ticker = null;
+        }
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        Map<String, List<Watch<T>>> due = new HashMap<>();
+        synchronized (this) {
+            for (Watch<T> watch : watches.values()) {
+                if (!watch.polling && now - watch.nextPollNanos >= 0) {
+                    watch.polling = true;
+                    due.computeIfAbsent(watch.status != null ? watch.status : "", status -> new ArrayList<>())
+                            .add(watch);
+                }
+            }
+        }
+        due.forEach((status, group) -> {
+            // The ticker is a periodic task: an exception escaping it would stop all polling
+            try {
+                if (!status.isEmpty() && group.size() >= minBatch) {
+                    Map<String, Watch<T>> remaining = new HashMap<>();
+                    for (Watch<T> watch : group) {
+                        remaining.put(watch.id, watch);
+                    }
+                    listPage(status, 0, maxPages, remaining);
+                } else {
+                    group.forEach(this::fetch);
+                }
+            } catch (RuntimeException e) {
+                group.forEach(watch -> failed(watch, e));
+            }
+        });
+    }
+
+    /**
+     * Confirm the IDs in {@code remaining} against the list of objects still in {@code status}
+     */
+    private void listPage(String status, int offset, int pagesLeft, Map<String, Watch<T>> remaining) {
+        CompletableFuture<? extends PaginatedResponse<T>> list;
+        try {
+            list = source.list(status, offset, pageSize);
+        } catch (RuntimeException e) {
+            remaining.values().forEach(this::fetch);
+            return;
+        }
+        list.whenComplete((page, error) -> {
+            if (error != null || page == null || page.getData() == null) {
+                remaining.values().forEach(this::fetch);
+                return;
+            }
+            for (T value : page.getData()) {
+                Watch<T> watch = value != null ? remaining.remove(source.id(value)) : null;
+                if (watch != null) {
+                    apply(watch, value);
+                }
+            }
+            if (remaining.isEmpty()) {
+                return;
+            }
+            if (page.hasMore() && pagesLeft > 1 && !page.getData().isEmpty()) {
+                listPage(status, page.nextOffset(), pagesLeft - 1, remaining);
+            } else {
+                // Not listed under the old status any more (or beyond the pages we read)
+                remaining.values().forEach(this::fetch);
+            }
+        });
+    }
+
+    private void fetch(Watch<T> watch) {
+        CompletableFuture<T> lookup;
+        try {
+            lookup = source.get(watch.id);
+        } catch (RuntimeException e) {
+            failed(watch, e);
+            return;
+        }
+        lookup.whenComplete((value, error) -> {
+            if (error != null) {
+                failed(watch, error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else if (value == null) {
+                failed(watch, new EKDSendException("Empty response for " + watch.id, 0, "UNKNOWN_ERROR", null));
+            } else {
+                apply(watch, value);
+            }
+        });
+    }
+
+    private void apply(Watch<T> watch, T value) {
+        if (source.isTerminal(value)) {
+            watch.future.complete(value);
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (this) {
+            watch.status = source.status(value);
+            Instant createdAt = source.createdAt(value);
+            if (createdAt != null) {
+                watch.createdAt = createdAt;
+            }
+            watch.errors = 0;
+            watch.nextPollNanos = now + intervalNanos(watch, now);
+            watch.polling = false;
+        }
+    }
+
+    private void failed(Watch<T> watch, Throwable error) {
+        if (error instanceof EKDSendException exception) {
+            int code = exception.getStatusCode();
+            if (code >= 400 && code < 500 && code != 429) {
+                watch.future.completeExceptionally(exception);
+                return;
+            }
+        }
+        long now = System.nanoTime();
+        synchronized (this) {
+            watch.errors = Math.min(watch.errors + 1, 16);
+            watch.nextPollNanos = now + Math.min(maxIntervalNanos, intervalNanos(watch, now) << watch.errors);
+            watch.polling = false;
+        }
+    }
+
+    private long intervalNanos(Watch<T> watch, long now) {
+        long ageNanos = watch.createdAt != null
+                ? Math.max(0, Duration.between(watch.createdAt, Instant.now()).toNanos())
+                : now - watch.startNanos;
+        long interval = Math.max(statusIntervalNanos(watch.status), (long) (ageNanos * ageFactor));
+        return Math.max(minIntervalNanos, Math.min(maxIntervalNanos, interval));
+    }
+
+    private long statusIntervalNanos(String status) {
+        if (status == null) {
+            return minIntervalNanos;
+        }
+        switch (status) {
+            case "scheduled":
+                // Nothing will happen until the scheduled time
+                return maxIntervalNanos;
+            case "in-progress":
+            case "in_progress":
+            case "answered":
+                // Live calls usually last minutes
+                return 5 * minIntervalNanos;
+            default:
+                return minIntervalNanos;
+        }
+    }
+
+    private static final class Watch<T> {
+        final String id;
+        final long startNanos;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        String status;
+        Instant createdAt;
+        long nextPollNanos;
+        int errors;
+        boolean polling;
+
+        Watch(String id, long startNanos) {
+            this.id = id;
+            this.startNanos = startNanos;
+            this.nextPollNanos = startNanos;
+        }
+    }
+
+    public static class Builder<T> {
+        private final Source<T> source;
+        private final ScheduledExecutorService scheduler;
+        private Duration minInterval = Duration.ofSeconds(1);
+        private Duration maxInterval = Duration.ofMinutes(1);
+        private double ageFactor = 0.1;
+        private int minBatch = 5;
+        private int pageSize = 100;
+        private int maxPages = 3;
+
+        Builder(Source<T> source, ScheduledExecutorService scheduler) {
+            this.source = source;
+            this.scheduler = scheduler;
+        }
+
+        /**
+         * Shortest and longest time between polls of one ID (defaults 1 second and 1 minute)
+         */
+        public Builder<T> pollInterval(Duration minInterval, Duration maxInterval) {
+            this.minInterval = minInterval;
+            this.maxInterval = maxInterval;
+            return this;
+        }
+
+        /**
+         * Poll interval as a fraction of the object's age (default 0.1)
+         */
+        public Builder<T> ageFactor(double ageFactor) {
+            if (ageFactor < 0) {
+                throw new IllegalArgumentException("ageFactor must not be negative");
+            }
+            this.ageFactor = ageFactor;
+            return this;
+        }
+
+        /**
+         * Refresh groups of at least {@code minBatch} IDs with the same status through list
+         * requests of {@code pageSize}, reading at most {@code maxPages} pages
+         * (defaults 5, 100 and 3)
+         */
+        public Builder<T> batching(int minBatch, int pageSize, int maxPages) {
+            if (minBatch < 1 || pageSize < 1 || maxPages < 1) {
+                throw new IllegalArgumentException("minBatch, pageSize and maxPages must be at least 1");
+            }
+            this.minBatch = minBatch;
+            this.pageSize = pageSize;
+            this.maxPages = maxPages;
+            return this;
+        }
+
+        public StatusWatcher<T> build() {
+            return new StatusWatcher<>(this);
+        }
+    }
+}
@@ -2,13 +2,22 @@ package com.ekddigital.ekdsend.api;
 
 import com.ekddigital.ekdsend.EKDSend;
 import com.ekddigital.ekdsend.exception.EKDSendException;
+import com.ekddigital.ekdsend.model.BatchResult;
+import com.ekddigital.ekdsend.model.PaginatedResponse;
 import com.ekddigital.ekdsend.model.Recording;
 import com.ekddigital.ekdsend.model.VoiceCall;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
 
 /**
  * Voice API
@@ -16,48 +25,42 @@ import java.util.Map;
 public class VoiceApi {
 
     private final EKDSend client;
+    private final RecordingDownloader downloader;
+    private volatile StatusWatcher<VoiceCall> statusWatcher;
 
     public VoiceApi(EKDSend client) {
         this.client = client;
+        this.downloader = new RecordingDownloader(client.getDownloadClient(), client.getScheduler(),
+                RecordingDownloader.DEFAULT_CHUNK_SIZE, RecordingDownloader.DEFAULT_PARALLELISM);
     }
 
     /**
      * Create a voice call
      */
     public VoiceCall create(CreateCallRequest request) throws EKDSendException {
-        return client.request("POST", "/calls", request.toMap(), VoiceCall.class);
+        return client.request("POST", "/calls", request, VoiceCall.class);
     }
 
     /**
      * Get a call by ID
      */
     public VoiceCall get(String callId) throws EKDSendException {
-        return client.request("GET", "/calls/" + callId, null, VoiceCall.class);
+        return Lookups.get(client, "/calls/" + callId, VoiceCall.class, VoiceCall::isTerminal);
     }
 
     /**
      * List calls with optional filters
      */
     public CallListResponse list(ListCallsRequest request) throws EKDSendException {
-        StringBuilder path = new StringBuilder("/calls?");
-        List<String> params = new ArrayList<>();
-
-        if (request.limit != null)
-            params.add("limit=" + request.limit);
-        if (request.offset != null)
-            params.add("offset=" + request.offset);
-        if (request.status != null)
-            params.add("status=" + request.status);
-
-        path.append(String.join("&", params));
-        return client.request("GET", path.toString(), null, CallListResponse.class);
+        return client.request("GET", listPath(request), null, CallListResponse.class);
     }
 
     /**
      * Hangup an active call
      */
     public VoiceCall hangup(String callId) throws EKDSendException {
-        return client.request("POST", "/calls/" + callId + "/hangup", null, VoiceCall.class);
+        String path = "/calls/" + callId;
+        return Lookups.mutate(client, "POST", path + "/hangup", path, VoiceCall.class);
     }
 
     /**
@@ -67,20 +70,270 @@ public class VoiceApi {
         return client.request("GET", "/calls/" + callId + "/recording", null, Recording.class);
     }
 
+    /**
+     * Download a call recording to {@code target}
+     * <p>
+     * The audio is streamed to disk, never held in memory. Large recordings are fetched with
+     * parallel range requests, and a download that was interrupted resumes from the chunks
+     * already on disk when called again with the same target. The file only appears at
+     * {@code target} once it is complete.
+     * </p>
+     *
+     * @return the target path
+     */
+    public Path downloadRecording(String callId, Path target) throws EKDSendException {
+        CompletableFuture<Path> download = downloadRecordingAsync(callId, target);
+        try {
+            return download.get();
+        } catch (InterruptedException e) {
+            download.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new EKDSendException("Download interrupted", 0, "INTERRUPTED", null);
+        } catch (CancellationException e) {
+            throw new EKDSendException("Download cancelled", 0, "CANCELLED", null);
+        } catch (ExecutionException e) {
+            throw BatchSender.asEKDSendException(e.getCause());
+        }
+    }
+
+    /**
+     * Download every call's recording into {@code directory}, at most {@code parallelism} at a
+     * time
+     * <p>
+     * Each recording is saved as the call ID plus the extension of its URL. Recordings already
+     * in the directory are skipped, so an interrupted archive can simply be run again.
+     * </p>
+     *
+     * @return one result per call, in input order
+     */
+    public List<BatchResult<Path>> archiveRecordings(Collection<String> callIds, Path directory, int parallelism)
+            throws EKDSendException {
+        return BatchSender.sendAll(callIds, parallelism, callId -> archiveAsync(callId, directory));
+    }
+
+    /**
+     * Create a dialer for paced outbound call campaigns
+     */
+    public CallDialer.Builder dialer() {
+        return new CallDialer.Builder(this, client.getScheduler());
+    }
+
+    /**
+     * Create a voice call without blocking the calling thread
+     */
+    public CompletableFuture<VoiceCall> createAsync(CreateCallRequest request) {
+        return client.requestAsync("POST", "/calls", request, VoiceCall.class);
+    }
+
+    /**
+     * Get a call by ID without blocking the calling thread
+     */
+    public CompletableFuture<VoiceCall> getAsync(String callId) {
+        return Lookups.getAsync(client, "/calls/" + callId, VoiceCall.class, VoiceCall::isTerminal);
+    }
+
+    /**
+     * Get a call, bypassing the response cache, for status polling
+     */
+    CompletableFuture<VoiceCall> refreshAsync(String callId) {
+        return Lookups.refreshAsync(client, "/calls/" + callId, VoiceCall.class, VoiceCall::isTerminal);
+    }
+
+    /**
+     * List calls without blocking the calling thread
+     */
+    public CompletableFuture<CallListResponse> listAsync(ListCallsRequest request) {
+        return client.requestAsync("GET", listPath(request), null, CallListResponse.class);
+    }
+
+    /**
+     * Hangup an active call without blocking the calling thread
+     */
+    public CompletableFuture<VoiceCall> hangupAsync(String callId) {
+        String path = "/calls/" + callId;
+        return Lookups.mutateAsync(client, "POST", path + "/hangup", path, VoiceCall.class);
+    }
+
+    /**
+     * Get call recording without blocking the calling thread
+     */
+    public CompletableFuture<Recording> getRecordingAsync(String callId) {
+        return client.requestAsync("GET", "/calls/" + callId + "/recording", null, Recording.class);
+    }
+
+    /**
+     * Download a call recording to {@code target} without blocking the calling thread
+     *
+     * @see #downloadRecording
+     */
+    public CompletableFuture<Path> downloadRecordingAsync(String callId, Path target) {
+        return getRecordingAsync(callId).thenCompose(recording -> {
+            if (recording == null || recording.getUrl() == null) {
+                return CompletableFuture.failedFuture(
+                        new EKDSendException("Call " + callId + " has no recording", 404, "NO_RECORDING", null));
+            }
+            return downloader.download(recording.getUrl(), target);
+        });
+    }
+
+    private CompletableFuture<Path> archiveAsync(String callId, Path directory) {
+        return getRecordingAsync(callId).thenCompose(recording -> {
+            if (recording == null || recording.getUrl() == null) {
+                return CompletableFuture.failedFuture(
+                        new EKDSendException("Call " + callId + " has no recording", 404, "NO_RECORDING", null));
+            }
+            Path target = directory.resolve(callId + extension(recording.getUrl()));
+            if (Files.exists(target)) {
+                return CompletableFuture.completedFuture(target);
+            }
+            return downloader.download(recording.getUrl(), target);
+        });
+    }
+
+    /**
+     * File extension of the last path segment of {@code url}, or an empty string
+     */
+    private static String extension(String url) {
+        int end = url.length();
+        for (char c : new char[] { '?', '#' }) {
+            int at = url.indexOf(c);
+            if (at >= 0 && at < end) {
+                end = at;
+            }
+        }
+        String path = url.substring(0, end);
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && name.length() - dot <= 6 ? name.substring(dot) : "";
+    }
+
+    /**
+     * Wait for a call to reach a terminal status
+     * <p>
+     * Uses the shared {@link #statusWatcher()}, which polls all awaited IDs from one
+     * scheduler and refreshes them in batches where it can.
+     * </p>
+     */
+    public CompletableFuture<VoiceCall> awaitTerminal(String callId) {
+        return statusWatcher().await(callId);
+    }
+
+    /**
+     * The watcher behind {@link #awaitTerminal}; webhook updates can be passed to its
+     * {@code update} method
+     */
+    public StatusWatcher<VoiceCall> statusWatcher() {
+        StatusWatcher<VoiceCall> watcher = statusWatcher;
+        if (watcher == null) {
+            synchronized (this) {
+                watcher = statusWatcher;
+                if (watcher == null) {
+                    watcher = watcher().build();
+                    statusWatcher = watcher;
+                }
+            }
+        }
+        return watcher;
+    }
+
+    /**
+     * Create a status watcher with custom polling settings
+     */
+    public StatusWatcher.Builder<VoiceCall> watcher() {
+        return new StatusWatcher.Builder<>(new StatusWatcher.Source<>() {
+            @Override
+            public CompletableFuture<VoiceCall> get(String id) {
+                return refreshAsync(id);
+            }
+
+            @Override
+            public CompletableFuture<CallListResponse> list(String status, int offset, int limit) {
+                return listAsync(ListCallsRequest.builder().status(status).limit(limit).offset(offset));
+            }
+
+            @Override
+            public String id(VoiceCall value) {
+                return value.getId();
+            }
+
+            @Override
+            public String status(VoiceCall value) {
+                return value.getStatus();
+            }
+
+            @Override
+            public Instant createdAt(VoiceCall value) {
+                return value.getCreatedAt();
+            }
+
+            @Override
+            public boolean isTerminal(VoiceCall value) {
+                return value.isTerminal();
+            }
+        }, client.getScheduler());
+    }
+
+    /**
+     * Iterate over all calls matching the filters, page by page
+     * <p>
+     * The next page is fetched in the background while the current one is consumed.
+     * </p>
+     */
+    public AutoPager<VoiceCall> autoPagingIterable(ListCallsRequest request) {
+        return new AutoPager<>(offset -> listAsync(request.withOffset(offset)),
+                request.offset != null ? request.offset : 0);
+    }
+
+    /**
+     * Stream all calls matching the filters, fetching pages in the background
+     */
+    public Stream<VoiceCall> stream(ListCallsRequest request) {
+        return autoPagingIterable(request).stream();
+    }
+
+    /**
+     * Stream all calls matching the filters, fetching pages concurrently
+     * <p>
+     * The first page is fetched before this method returns; its {@code total} determines the
+     * remaining offsets, which are fetched with at most {@code parallelism} pages in flight.
+     * The returned stream is parallel. When {@code ordered} is false items arrive page by page
+     * in completion order, which is fastest for exports that don't need list order.
+     * </p>
+     */
+    public Stream<VoiceCall> parallelStream(ListCallsRequest request, int parallelism, boolean ordered) throws EKDSendException {
+        return ParallelPager.stream(offset -> listAsync(request.withOffset(offset)),
+                request.offset != null ? request.offset : 0, parallelism, ordered);
+    }
+
+    private static String listPath(ListCallsRequest request) {
+        StringBuilder path = new StringBuilder("/calls?");
+        List<String> params = new ArrayList<>();
+
+        if (request.limit != null)
+            params.add("limit=" + request.limit);
+        if (request.offset != null)
+            params.add("offset=" + request.offset);
+        if (request.status != null)
+            params.add("status=" + request.status);
+
+        path.append(String.join("&", params));
+        return path.toString();
+    }
+
     /**
      * Request builder for creating a call
      */
     public static class CreateCallRequest {
-        private String to;
-        private String from;
-        private String ttsMessage;
-        private String audioUrl;
-        private String voice;
-        private String language;
-        private Boolean record;
-        private Boolean machineDetection;
-        private String webhookUrl;
-        private Map<String, String> metadata;
+        String to;
+        String from;
+        String ttsMessage;
+        String audioUrl;
+        String voice;
+        String language;
+        Boolean record;
+        Boolean machineDetection;
+        String webhookUrl;
+        Map<String, String> metadata;
 
         private CreateCallRequest() {
         }
@@ -138,31 +391,6 @@ public class VoiceApi {
             this.metadata = metadata;
             return this;
         }
-
-        Map<String, Object> toMap() {
-            Map<String, Object> map = new HashMap<>();
-            if (to != null)
-                map.put("to", to);
-            if (from != null)
-                map.put("from", from);
-            if (ttsMessage != null)
-                map.put("tts_message", ttsMessage);
-            if (audioUrl != null)
-                map.put("audio_url", audioUrl);
-            if (voice != null)
-                map.put("voice", voice);
-            if (language != null)
-                map.put("language", language);
-            if (record != null)
-                map.put("record", record);
-            if (machineDetection != null)
-                map.put("machine_detection", machineDetection);
-            if (webhookUrl != null)
-                map.put("webhook_url", webhookUrl);
-            if (metadata != null)
-                map.put("metadata", metadata);
-            return map;
-        }
     }
 
     /**
@@ -194,51 +422,19 @@ public class VoiceApi {
             this.status = status;
             return this;
         }
+
+        ListCallsRequest withOffset(int offset) {
+            ListCallsRequest copy = new ListCallsRequest();
+            copy.limit = limit;
+            copy.offset = offset;
+            copy.status = status;
+            return copy;
+        }
     }
 
     /**
      * Response for listing calls
      */
-    public static class CallListResponse {
-        private List<VoiceCall> data;
-        private int total;
-        private int limit;
-        private int offset;
-
-        public List<VoiceCall> getData() {
-            return data;
-        }
-
-        public void setData(List<VoiceCall> data) {
-            this.data = data;
-        }
-
-        public int getTotal() {
-            return total;
-        }
-
-        public void setTotal(int total) {
-            this.total = total;
-        }
-
-        public int getLimit() {
-            return limit;
-        }
-
-        public void setLimit(int limit) {
-            this.limit = limit;
-        }
-
-        public int getOffset() {
-            return offset;
-        }
-
-        public void setOffset(int offset) {
-            this.offset = offset;
-        }
-
-        public boolean hasMore() {
-            return (offset + limit) < total;
-        }
+    public static class CallListResponse extends PaginatedResponse<VoiceCall> {
     }
 }
@@ -0,0 +1,277 @@
+package com.ekddigital.ekdsend.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-process cache for {@code get()} lookups
+ * <p>
+ * Entries for objects in a terminal status are kept for {@code terminalTtl}; everything else
+ * expires after the short {@code ttl} so in-progress messages and calls are re-fetched. When
+ * the cache is full, a new entry only displaces the least recently used one if it has been
+ * requested more often recently, as estimated by a small count-min sketch that is halved
+ * periodically. One-off lookups therefore don't flush out IDs that are read repeatedly.
+ * </p>
+ * <p>
+ * A fetch that races with a change to the same object should be stored with
+ * {@link #put(String, Object, boolean, long)} and the {@link #generation} read before it was
+ * sent, so a response read before the change can't be cached after {@link #invalidate}.
+ * </p>
+ * <p>
+ * Cached objects are shared between callers and must not be modified.
+ * </p>
+ */
+public class ResponseCache {
+
+    private static final int GENERATION_STRIPES = 64;
+
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final long terminalTtlNanos;
+    private final LinkedHashMap<String, Entry> entries;
+    private final FrequencySketch sketch;
+    /** Invalidation counters, striped by key hash so they take fixed space */
+    private final long[] generations = new long[GENERATION_STRIPES];
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private ResponseCache(Builder builder) {
+        this.maximumSize = builder.maximumSize;
+        this.ttlNanos = builder.ttl.toNanos();
+        this.terminalTtlNanos = builder.terminalTtl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.sketch = new FrequencySketch(builder.maximumSize);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the cached value, or null if absent or expired
+     */
+    public Object get(String key) {
+        long now = System.nanoTime();
+        synchronized (this) {
+            sketch.increment(key);
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.expiresAt < 0) {
+                hits.incrementAndGet();
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Store a freshly fetched value
+     *
+     * @param terminal whether the object is in a final status and can be kept long-term
+     */
+    public void put(String key, Object value, boolean terminal) {
+        long expiresAt = System.nanoTime() + (terminal ? terminalTtlNanos : ttlNanos);
+        synchronized (this) {
+            store(key, value, expiresAt);
+        }
+    }
+
+    /**
+     * Store a value fetched after {@link #generation} returned {@code generation}, unless
+     * {@code key} has been invalidated since
+     *
+     * @return false if the value was not stored because it may be stale
+     */
+    public boolean put(String key, Object value, boolean terminal, long generation) {
+        long expiresAt = System.nanoTime() + (terminal ? terminalTtlNanos : ttlNanos);
+        synchronized (this) {
+            if (generations[stripe(key)] != generation) {
+                return false;
+            }
+            store(key, value, expiresAt);
+            return true;
+        }
+    }
+
+    /**
+     * Invalidation count for {@code key}, to be read before fetching a value to {@link #put}
+     */
+    public synchronized long generation(String key) {
+        return generations[stripe(key)];
+    }
+
+    private void store(String key, Object value, long expiresAt) {
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            existing.value = value;
+            existing.expiresAt = expiresAt;
+            return;
+        }
+        if (entries.size() >= maximumSize && !evictFor(key, System.nanoTime())) {
+            return;
+        }
+        entries.put(key, new Entry(value, expiresAt));
+    }
+
+    /**
+     * Drop the entry for {@code key}, e.g. after the object was changed
+     */
+    public synchronized void invalidate(String key) {
+        entries.remove(key);
+        generations[stripe(key)]++;
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations[i]++;
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    private static int stripe(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    /**
+     * Make room for {@code candidate}: expired entries go first, otherwise the least recently
+     * used entry is evicted only if the candidate is more frequently requested
+     */
+    private boolean evictFor(String candidate, long now) {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        Map.Entry<String, Entry> victim = it.next();
+        if (now - victim.getValue().expiresAt >= 0) {
+            it.remove();
+            return true;
+        }
+        if (sketch.frequency(candidate) <= sketch.frequency(victim.getKey())) {
+            return false;
+        }
+        it.remove();
+        evictions.incrementAndGet();
+        return true;
+    }
+
+    private static final class Entry {
+        Object value;
+        long expiresAt;
+
+        Entry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Count-min sketch with four rows of counters saturating at 15, halved after every
+     * {@code 10 * maximumSize} increments so old popularity fades
+     */
+    private static final class FrequencySketch {
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = { 0x97cb3127, 0x85ebca6b, 0xc2b2ae35, 0x27d4eb2f };
+
+        private final byte[][] rows;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maximumSize) {
+            int width = Integer.highestOneBit(Math.max(16, maximumSize) * 2 - 1);
+            this.rows = new byte[SEEDS.length][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * maximumSize;
+        }
+
+        void increment(String key) {
+            int hash = key.hashCode();
+            for (int i = 0; i < rows.length; i++) {
+                int index = index(hash, i);
+                if (rows[i][index] < MAX_COUNT) {
+                    rows[i][index]++;
+                }
+            }
+            if (++additions >= sampleSize) {
+                for (byte[] row : rows) {
+                    for (int j = 0; j < row.length; j++) {
+                        row[j] >>= 1;
+                    }
+                }
+                additions /= 2;
+            }
+        }
+
+        int frequency(String key) {
+            int hash = key.hashCode();
+            int min = MAX_COUNT;
+            for (int i = 0; i < rows.length; i++) {
+                min = Math.min(min, rows[i][index(hash, i)]);
+            }
+            return min;
+        }
+
+        private int index(int hash, int row) {
+            int h = hash * SEEDS[row];
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+
+    public static class Builder {
+        private int maximumSize = 10_000;
+        private Duration ttl = Duration.ofSeconds(2);
+        private Duration terminalTtl = Duration.ofHours(1);
+
+        /**
+         * Maximum number of cached objects (default 10,000)
+         */
+        public Builder maximumSize(int maximumSize) {
+            if (maximumSize < 1) {
+                throw new IllegalArgumentException("maximumSize must be at least 1");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * How long objects that may still change are cached (default 2 seconds)
+         */
+        public Builder ttl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        /**
+         * How long objects in a terminal status are cached (default 1 hour)
+         */
+        public Builder terminalTtl(Duration terminalTtl) {
+            this.terminalTtl = terminalTtl;
+            return this;
+        }
+
+        public ResponseCache build() {
+            return new ResponseCache(this);
+        }
+    }
+}
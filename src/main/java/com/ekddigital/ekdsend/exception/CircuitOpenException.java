@@ -0,0 +1,21 @@
+package com.ekddigital.ekdsend.exception;
+
+/**
+ * Exception for requests failed fast because the endpoint's circuit breaker is open
+ */
+public class CircuitOpenException extends EKDSendException {
+
+    private final String endpoint;
+
+    public CircuitOpenException(String message, String endpoint) {
+        super(message, 0, "CIRCUIT_OPEN", null);
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Get the endpoint whose circuit is open, e.g. {@code /emails}
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,11 @@
+package com.ekddigital.ekdsend.exception;
+
+/**
+ * Exception for requests rejected by a client-side limiter before being sent
+ */
+public class ThrottledException extends EKDSendException {
+
+    public ThrottledException(String message, String errorCode) {
+        super(message, 0, errorCode, null);
+    }
+}
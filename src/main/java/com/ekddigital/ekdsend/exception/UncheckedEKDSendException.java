@@ -0,0 +1,17 @@
+package com.ekddigital.ekdsend.exception;
+
+/**
+ * Wraps an {@link EKDSendException} where a checked exception cannot be thrown,
+ * such as from an {@link java.util.Iterator} or {@link java.util.stream.Stream}
+ */
+public class UncheckedEKDSendException extends RuntimeException {
+
+    public UncheckedEKDSendException(EKDSendException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized EKDSendException getCause() {
+        return (EKDSendException) super.getCause();
+    }
+}
@@ -0,0 +1,73 @@
+package com.ekddigital.ekdsend.json;
+
+import com.ekddigital.ekdsend.model.Email;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+import java.io.IOException;
+
+class EmailDeserializer extends ModelDeserializer<Email> {
+
+    EmailDeserializer() {
+        super(Email.class);
+    }
+
+    @Override
+    protected Email create() {
+        return new Email();
+    }
+
+    @Override
+    protected boolean readField(JsonParser p, DeserializationContext ctxt, Email email, String name)
+            throws IOException {
+        switch (name) {
+            case "id":
+                email.setId(string(p, ctxt));
+                return true;
+            case "status":
+                email.setStatus(status(p, ctxt));
+                return true;
+            case "from":
+                email.setFrom(string(p, ctxt));
+                return true;
+            case "to":
+                email.setTo(strings(p, ctxt));
+                return true;
+            case "subject":
+                email.setSubject(string(p, ctxt));
+                return true;
+            case "html":
+                email.setHtml(string(p, ctxt));
+                return true;
+            case "text":
+                email.setText(string(p, ctxt));
+                return true;
+            case "cc":
+                email.setCc(strings(p, ctxt));
+                return true;
+            case "bcc":
+                email.setBcc(strings(p, ctxt));
+                return true;
+            case "reply_to":
+                email.setReplyTo(string(p, ctxt));
+                return true;
+            case "tags":
+                email.setTags(strings(p, ctxt));
+                return true;
+            case "metadata":
+                email.setMetadata(metadata(p, ctxt));
+                return true;
+            case "created_at":
+                email.setCreatedAt(instant(p, ctxt));
+                return true;
+            case "sent_at":
+                email.setSentAt(instant(p, ctxt));
+                return true;
+            case "delivered_at":
+                email.setDeliveredAt(instant(p, ctxt));
+                return true;
+            default:
+                return false;
+        }
+    }
+}
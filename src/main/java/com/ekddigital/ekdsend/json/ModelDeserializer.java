@@ -0,0 +1,152 @@
+package com.ekddigital.ekdsend.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.JsonTokenId;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base for the hand-written streaming model deserializers
+ * <p>
+ * Walks the object's fields and hands each value to {@link #readField}; unknown fields are
+ * skipped. The value helpers read the common scalar shapes straight off the parser and defer
+ * anything unusual to the regular Jackson deserializers, so coercion and error messages match
+ * reflective binding.
+ * </p>
+ */
+abstract class ModelDeserializer<T> extends StdDeserializer<T> {
+
+    protected ModelDeserializer(Class<T> type) {
+        super(type);
+    }
+
+    protected abstract T create();
+
+    /**
+     * Read the value of {@code name}, the parser being positioned on its first token
+     *
+     * @return false if the field is unknown and should be skipped
+     */
+    protected abstract boolean readField(JsonParser p, DeserializationContext ctxt, T value, String name)
+            throws IOException;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken();
+        } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            return (T) ctxt.handleUnexpectedToken(handledType(), p);
+        }
+        T value = create();
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String name = p.currentName();
+            p.nextToken();
+            if (!readField(p, ctxt, value, name)) {
+                p.skipChildren();
+            }
+        }
+        return value;
+    }
+
+    static String string(JsonParser p, DeserializationContext ctxt) throws IOException {
+        switch (p.currentTokenId()) {
+            case JsonTokenId.ID_STRING:
+                return p.getText();
+            case JsonTokenId.ID_NULL:
+                return null;
+            default:
+                return ctxt.readValue(p, String.class);
+        }
+    }
+
+    static String status(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentTokenId() == JsonTokenId.ID_STRING) {
+            return Statuses.of(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+        }
+        return string(p, ctxt);
+    }
+
+    static Integer integer(JsonParser p, DeserializationContext ctxt) throws IOException {
+        switch (p.currentTokenId()) {
+            case JsonTokenId.ID_NUMBER_INT:
+                return p.getIntValue();
+            case JsonTokenId.ID_NULL:
+                return null;
+            default:
+                return ctxt.readValue(p, Integer.class);
+        }
+    }
+
+    static int intValue(JsonParser p, DeserializationContext ctxt) throws IOException {
+        Integer value = integer(p, ctxt);
+        return value != null ? value : 0;
+    }
+
+    static boolean bool(JsonParser p, DeserializationContext ctxt) throws IOException {
+        switch (p.currentTokenId()) {
+            case JsonTokenId.ID_TRUE:
+                return true;
+            case JsonTokenId.ID_FALSE:
+            case JsonTokenId.ID_NULL:
+                return false;
+            default:
+                return Boolean.TRUE.equals(ctxt.readValue(p, Boolean.class));
+        }
+    }
+
+    static Instant instant(JsonParser p, DeserializationContext ctxt) throws IOException {
+        switch (p.currentTokenId()) {
+            case JsonTokenId.ID_STRING:
+                Instant instant = Timestamps.parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+                return instant != null ? instant : ctxt.readValue(p, Instant.class);
+            case JsonTokenId.ID_NULL:
+                return null;
+            default:
+                return ctxt.readValue(p, Instant.class);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<String> strings(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentTokenId() == JsonTokenId.ID_NULL) {
+            return null;
+        }
+        if (!p.isExpectedStartArrayToken()) {
+            return (List<String>) ctxt.handleUnexpectedToken(List.class, p);
+        }
+        List<String> values = new ArrayList<>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            values.add(string(p, ctxt));
+        }
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, String> metadata(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentTokenId() == JsonTokenId.ID_NULL) {
+            return null;
+        }
+        if (p.currentTokenId() != JsonTokenId.ID_START_OBJECT) {
+            return (Map<String, String>) ctxt.handleUnexpectedToken(Map.class, p);
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String key = p.currentName();
+            p.nextToken();
+            values.put(key, p.currentToken().isScalarValue() && p.currentTokenId() != JsonTokenId.ID_NULL
+                    ? p.getValueAsString()
+                    : string(p, ctxt));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,40 @@
+package com.ekddigital.ekdsend.json;
+
+import com.ekddigital.ekdsend.api.EmailsApi;
+import com.ekddigital.ekdsend.api.SmsApi;
+import com.ekddigital.ekdsend.api.VoiceApi;
+import com.ekddigital.ekdsend.model.Email;
+import com.ekddigital.ekdsend.model.Recording;
+import com.ekddigital.ekdsend.model.Sms;
+import com.ekddigital.ekdsend.model.VoiceCall;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * Jackson module with streaming deserializers for the response models
+ * <p>
+ * Registered on the client's {@code ObjectMapper}. {@link Email}, {@link Sms},
+ * {@link VoiceCall}, {@link Recording} and the {@code *ListResponse} types are read field by
+ * field with no reflective bean introspection, which shortens warm-up and keeps deserialization
+ * working where reflection is restricted. Status values are mapped onto shared constants and
+ * timestamps are parsed from the parser's buffer.
+ * </p>
+ */
+public class ModelModule extends SimpleModule {
+
+    public ModelModule() {
+        super("EKDSendModels");
+        EmailDeserializer email = new EmailDeserializer();
+        SmsDeserializer sms = new SmsDeserializer();
+        VoiceCallDeserializer call = new VoiceCallDeserializer();
+        addDeserializer(Email.class, email);
+        addDeserializer(Sms.class, sms);
+        addDeserializer(VoiceCall.class, call);
+        addDeserializer(Recording.class, new RecordingDeserializer());
+        addDeserializer(EmailsApi.EmailsListResponse.class,
+                new PageDeserializer<>(EmailsApi.EmailsListResponse.class, EmailsApi.EmailsListResponse::new, email));
+        addDeserializer(SmsApi.SmsListResponse.class,
+                new PageDeserializer<>(SmsApi.SmsListResponse.class, SmsApi.SmsListResponse::new, sms));
+        addDeserializer(VoiceApi.CallListResponse.class,
+                new PageDeserializer<>(VoiceApi.CallListResponse.class, VoiceApi.CallListResponse::new, call));
+    }
+}
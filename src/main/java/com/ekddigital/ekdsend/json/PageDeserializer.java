@@ -0,0 +1,68 @@
+package com.ekddigital.ekdsend.json;
+
+import com.ekddigital.ekdsend.model.PaginatedResponse;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.JsonTokenId;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Deserializes a {@code *ListResponse}, reading its items with the element type's deserializer
+ */
+class PageDeserializer<T, P extends PaginatedResponse<T>> extends ModelDeserializer<P> {
+
+    private final Supplier<P> factory;
+    private final ModelDeserializer<T> element;
+
+    PageDeserializer(Class<P> type, Supplier<P> factory, ModelDeserializer<T> element) {
+        super(type);
+        this.factory = factory;
+        this.element = element;
+    }
+
+    @Override
+    protected P create() {
+        return factory.get();
+    }
+
+    @Override
+    protected boolean readField(JsonParser p, DeserializationContext ctxt, P page, String name)
+            throws IOException {
+        switch (name) {
+            case "data":
+                page.setData(items(p, ctxt));
+                return true;
+            case "total":
+                page.setTotal(intValue(p, ctxt));
+                return true;
+            case "limit":
+                page.setLimit(intValue(p, ctxt));
+                return true;
+            case "offset":
+                page.setOffset(intValue(p, ctxt));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> items(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentTokenId() == JsonTokenId.ID_NULL) {
+            return null;
+        }
+        if (!p.isExpectedStartArrayToken()) {
+            return (List<T>) ctxt.handleUnexpectedToken(List.class, p);
+        }
+        List<T> items = new ArrayList<>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            items.add(p.currentTokenId() == JsonTokenId.ID_NULL ? null : element.deserialize(p, ctxt));
+        }
+        return items;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ekddigital.ekdsend.json;
+
+import com.ekddigital.ekdsend.model.Recording;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+import java.io.IOException;
+
+class RecordingDeserializer extends ModelDeserializer<Recording> {
+
+    RecordingDeserializer() {
+        super(Recording.class);
+    }
+
+    @Override
+    protected Recording create() {
+        return new Recording();
+    }
+
+    @Override
+    protected boolean readField(JsonParser p, DeserializationContext ctxt, Recording recording, String name)
+            throws IOException {
+        switch (name) {
+            case "url":
+                recording.setUrl(string(p, ctxt));
+                return true;
+            case "duration":
+                recording.setDuration(intValue(p, ctxt));
+                return true;
+            case "created_at":
+                recording.setCreatedAt(instant(p, ctxt));
+                return true;
+            default:
+                return false;
+        }
+    }
+}
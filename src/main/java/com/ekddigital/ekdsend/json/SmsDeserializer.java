@@ -0,0 +1,58 @@
+package com.ekddigital.ekdsend.json;
+
+import com.ekddigital.ekdsend.model.Sms;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+import java.io.IOException;
+
+class SmsDeserializer extends ModelDeserializer<Sms> {
+
+    SmsDeserializer() {
+        super(Sms.class);
+    }
+
+    @Override
+    protected Sms create() {
+        return new Sms();
+    }
+
+    @Override
+    protected boolean readField(JsonParser p, DeserializationContext ctxt, Sms sms, String name)
+            throws IOException {
+        switch (name) {
+            case "id":
+                sms.setId(string(p, ctxt));
+                return true;
+            case "status":
+                sms.setStatus(status(p, ctxt));
+                return true;
+            case "to":
+                sms.setTo(string(p, ctxt));
+                return true;
+            case "from":
+                sms.setFrom(string(p, ctxt));
+                return true;
+            case "message":
+                sms.setMessage(string(p, ctxt));
+                return true;
+            case "segments":
+                sms.setSegments(intValue(p, ctxt));
+                return true;
+            case "metadata":
+                sms.setMetadata(metadata(p, ctxt));
+                return true;
+            case "created_at":
+                sms.setCreatedAt(instant(p, ctxt));
+                return true;
+            case "sent_at":
+                sms.setSentAt(instant(p, ctxt));
+                return true;
+            case "delivered_at":
+                sms.setDeliveredAt(instant(p, ctxt));
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.ekddigital.ekdsend.json;
+
+/**
+ * Maps status values read from the parser onto shared string constants
+ * <p>
+ * Statuses repeat on every message and call, so known values are looked up by their characters
+ * in a small open-addressed table and returned as the same constant instance instead of
+ * allocating a new string per object. Unknown statuses are returned as new strings.
+ * </p>
+ */
+final class Statuses {
+
+    private static final String[] KNOWN = {
+            "queued", "scheduled", "pending", "accepted", "processing", "sending", "sent",
+            "delivered", "undelivered", "opened", "clicked", "bounced", "complained", "rejected",
+            "failed", "canceled", "cancelled", "initiated", "ringing", "in-progress", "in_progress",
+            "answered", "completed", "busy", "no-answer", "no_answer"
+    };
+
+    private static final int MASK = 63;
+    private static final String[] TABLE = new String[MASK + 1];
+
+    static {
+        for (String status : KNOWN) {
+            int i = slot(status.hashCode());
+            while (TABLE[i] != null) {
+                i = (i + 1) & MASK;
+            }
+            TABLE[i] = status;
+        }
+    }
+
+    private Statuses() {
+    }
+
+    static String of(char[] buf, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + buf[i];
+        }
+        for (int i = slot(hash); TABLE[i] != null; i = (i + 1) & MASK) {
+            if (matches(TABLE[i], buf, offset, length)) {
+                return TABLE[i];
+            }
+        }
+        return new String(buf, offset, length);
+    }
+
+    private static int slot(int hash) {
+        return (hash ^ (hash >>> 16)) & MASK;
+    }
+
+    private static boolean matches(String status, char[] buf, int offset, int length) {
+        if (status.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (status.charAt(i) != buf[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
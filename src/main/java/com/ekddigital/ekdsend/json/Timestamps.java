@@ -0,0 +1,120 @@
+package com.ekddigital.ekdsend.json;
+
+import java.time.Instant;
+
+/**
+ * ISO-8601 timestamp parser working directly on the parser's character buffer
+ * <p>
+ * Handles the {@code yyyy-MM-ddTHH:mm:ss[.fraction](Z|+HH:mm|+HHmm|+HH)} forms the API
+ * produces without building an intermediate string or formatter state. Anything else makes
+ * {@link #parse} return null so the caller can fall back to the general-purpose parser.
+ * </p>
+ */
+final class Timestamps {
+
+    private static final int[] DAYS_IN_MONTH = { 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+
+    private Timestamps() {
+    }
+
+    /**
+     * @return the instant, or null if the text is not in a supported form
+     */
+    static Instant parse(char[] buf, int offset, int length) {
+        int end = offset + length;
+        if (length < 20) {
+            return null;
+        }
+        int p = offset;
+        int year = digits(buf, p, 4);
+        int month = digits(buf, p + 5, 2);
+        int day = digits(buf, p + 8, 2);
+        int hour = digits(buf, p + 11, 2);
+        int minute = digits(buf, p + 14, 2);
+        int second = digits(buf, p + 17, 2);
+        char t = buf[p + 10];
+        if (year < 0 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 59
+                || buf[p + 4] != '-' || buf[p + 7] != '-' || buf[p + 13] != ':' || buf[p + 16] != ':'
+                || (t != 'T' && t != 't' && t != ' ')) {
+            return null;
+        }
+        boolean leap = (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+        if (day > DAYS_IN_MONTH[month - 1] + (month == 2 && leap ? 1 : 0)) {
+            return null;
+        }
+        p += 19;
+
+        int nanos = 0;
+        if (buf[p] == '.') {
+            int scale = 100_000_000;
+            p++;
+            int start = p;
+            while (p < end && buf[p] >= '0' && buf[p] <= '9') {
+                if (p - start >= 9) {
+                    return null;
+                }
+                nanos += (buf[p] - '0') * scale;
+                scale /= 10;
+                p++;
+            }
+            if (p == start || p >= end) {
+                return null;
+            }
+        }
+
+        int offsetSeconds;
+        char sign = buf[p];
+        if (sign == 'Z' || sign == 'z') {
+            offsetSeconds = 0;
+            p++;
+        } else if (sign == '+' || sign == '-') {
+            int remaining = end - p - 1;
+            int offsetHours = remaining >= 2 ? digits(buf, p + 1, 2) : -1;
+            int offsetMinutes = 0;
+            if (remaining == 5 && buf[p + 3] == ':') {
+                offsetMinutes = digits(buf, p + 4, 2);
+            } else if (remaining == 4) {
+                offsetMinutes = digits(buf, p + 3, 2);
+            } else if (remaining != 2) {
+                return null;
+            }
+            if (offsetHours < 0 || offsetHours > 18 || offsetMinutes < 0 || offsetMinutes > 59) {
+                return null;
+            }
+            offsetSeconds = (offsetHours * 3600 + offsetMinutes * 60) * (sign == '-' ? -1 : 1);
+            p = end;
+        } else {
+            return null;
+        }
+        if (p != end) {
+            return null;
+        }
+
+        long epochSecond = epochDay(year, month, day) * 86_400L + hour * 3600 + minute * 60 + second - offsetSeconds;
+        return Instant.ofEpochSecond(epochSecond, nanos);
+    }
+
+    /** Days since 1970-01-01 in the proleptic Gregorian calendar */
+    private static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468;
+    }
+
+    /** @return the non-negative value of {@code count} ASCII digits, or -1 */
+    private static int digits(char[] buf, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = buf[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
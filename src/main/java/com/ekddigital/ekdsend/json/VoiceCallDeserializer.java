@@ -0,0 +1,76 @@
+package com.ekddigital.ekdsend.json;
+
+import com.ekddigital.ekdsend.model.VoiceCall;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+import java.io.IOException;
+
+class VoiceCallDeserializer extends ModelDeserializer<VoiceCall> {
+
+    VoiceCallDeserializer() {
+        super(VoiceCall.class);
+    }
+
+    @Override
+    protected VoiceCall create() {
+        return new VoiceCall();
+    }
+
+    @Override
+    protected boolean readField(JsonParser p, DeserializationContext ctxt, VoiceCall call, String name)
+            throws IOException {
+        switch (name) {
+            case "id":
+                call.setId(string(p, ctxt));
+                return true;
+            case "status":
+                call.setStatus(status(p, ctxt));
+                return true;
+            case "to":
+                call.setTo(string(p, ctxt));
+                return true;
+            case "from":
+                call.setFrom(string(p, ctxt));
+                return true;
+            case "tts_message":
+                call.setTtsMessage(string(p, ctxt));
+                return true;
+            case "audio_url":
+                call.setAudioUrl(string(p, ctxt));
+                return true;
+            case "voice":
+                call.setVoice(string(p, ctxt));
+                return true;
+            case "language":
+                call.setLanguage(string(p, ctxt));
+                return true;
+            case "record":
+                call.setRecord(bool(p, ctxt));
+                return true;
+            case "machine_detection":
+                call.setMachineDetection(bool(p, ctxt));
+                return true;
+            case "duration":
+                call.setDuration(integer(p, ctxt));
+                return true;
+            case "recording_url":
+                call.setRecordingUrl(string(p, ctxt));
+                return true;
+            case "metadata":
+                call.setMetadata(metadata(p, ctxt));
+                return true;
+            case "created_at":
+                call.setCreatedAt(instant(p, ctxt));
+                return true;
+            case "answered_at":
+                call.setAnsweredAt(instant(p, ctxt));
+                return true;
+            case "ended_at":
+                call.setEndedAt(instant(p, ctxt));
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.ekddigital.ekdsend.metrics;
+
+/**
+ * Where the time of one HTTP call went
+ * <p>
+ * Phases are in nanoseconds and are -1 when they didn't happen, e.g. DNS, connect and TLS on a
+ * reused connection. If OkHttp had to try several routes, connect phases are summed.
+ * </p>
+ */
+public final class CallTiming {
+
+    private final String method;
+    private final String endpoint;
+    private final long acquireNanos;
+    private final long dnsNanos;
+    private final long connectNanos;
+    private final long tlsNanos;
+    private final long requestNanos;
+    private final long serverNanos;
+    private final long responseNanos;
+    private final long totalNanos;
+    private final boolean connectionReused;
+    private final boolean failed;
+
+    CallTiming(String method, String endpoint, long acquireNanos, long dnsNanos, long connectNanos, long tlsNanos,
+            long requestNanos, long serverNanos, long responseNanos, long totalNanos, boolean connectionReused,
+            boolean failed) {
+        this.method = method;
+        this.endpoint = endpoint;
+        this.acquireNanos = acquireNanos;
+        this.dnsNanos = dnsNanos;
+        this.connectNanos = connectNanos;
+        this.tlsNanos = tlsNanos;
+        this.requestNanos = requestNanos;
+        this.serverNanos = serverNanos;
+        this.responseNanos = responseNanos;
+        this.totalNanos = totalNanos;
+        this.connectionReused = connectionReused;
+        this.failed = failed;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * From the start of the call until it had a connection: dispatcher queueing, waiting for
+     * the pool, DNS, connect and TLS
+     */
+    public long getAcquireNanos() {
+        return acquireNanos;
+    }
+
+    public long getDnsNanos() {
+        return dnsNanos;
+    }
+
+    /**
+     * TCP connect, excluding the TLS handshake
+     */
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    public long getTlsNanos() {
+        return tlsNanos;
+    }
+
+    /**
+     * Writing the request headers and body
+     */
+    public long getRequestNanos() {
+        return requestNanos;
+    }
+
+    /**
+     * From the end of the request until the response headers started arriving
+     */
+    public long getServerNanos() {
+        return serverNanos;
+    }
+
+    /**
+     * Reading the response headers and body
+     */
+    public long getResponseNanos() {
+        return responseNanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Whether the call ran on a pooled connection rather than a new one
+     */
+    public boolean isConnectionReused() {
+        return connectionReused;
+    }
+
+    /**
+     * Whether the call failed with an I/O error or was cancelled
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + endpoint + ": total=" + micros(totalNanos) + ", acquire=" + micros(acquireNanos)
+                + ", dns=" + micros(dnsNanos) + ", connect=" + micros(connectNanos) + ", tls=" + micros(tlsNanos)
+                + ", server=" + micros(serverNanos) + ", reused=" + connectionReused;
+    }
+
+    private static String micros(long nanos) {
+        return nanos < 0 ? "-" : nanos / 1000 + "us";
+    }
+}
@@ -0,0 +1,107 @@
+package com.ekddigital.ekdsend.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection-phase timings of all calls, kept by {@link InMemoryMetrics}
+ * <p>
+ * A low reuse rate or a long {@link #getAcquire() acquire} time with short DNS, connect and TLS
+ * phases points at the connection pool; long {@link #getServer() server} times point at the
+ * API itself.
+ * </p>
+ */
+public final class ConnectionMetrics {
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final LatencyHistogram acquire = new LatencyHistogram();
+    private final LatencyHistogram dns = new LatencyHistogram();
+    private final LatencyHistogram connect = new LatencyHistogram();
+    private final LatencyHistogram tls = new LatencyHistogram();
+    private final LatencyHistogram server = new LatencyHistogram();
+
+    ConnectionMetrics() {
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    /**
+     * Calls that ran on a pooled connection
+     */
+    public long getReusedConnections() {
+        return reused.get();
+    }
+
+    /**
+     * Fraction of calls that ran on a pooled connection
+     */
+    public double getReuseRate() {
+        long total = calls.get();
+        return total == 0 ? 0 : (double) reused.get() / total;
+    }
+
+    public long getFailedCalls() {
+        return failed.get();
+    }
+
+    /**
+     * Time until a call had a connection, whether pooled or new
+     */
+    public LatencyHistogram getAcquire() {
+        return acquire;
+    }
+
+    public LatencyHistogram getDns() {
+        return dns;
+    }
+
+    /**
+     * TCP connect time of new connections
+     */
+    public LatencyHistogram getConnect() {
+        return connect;
+    }
+
+    public LatencyHistogram getTls() {
+        return tls;
+    }
+
+    /**
+     * Time from sending a request to the first byte of the response
+     */
+    public LatencyHistogram getServer() {
+        return server;
+    }
+
+    void record(CallTiming timing) {
+        calls.incrementAndGet();
+        if (timing.isConnectionReused()) {
+            reused.incrementAndGet();
+        }
+        if (timing.isFailed()) {
+            failed.incrementAndGet();
+        }
+        recordPhase(acquire, timing.getAcquireNanos());
+        recordPhase(dns, timing.getDnsNanos());
+        recordPhase(connect, timing.getConnectNanos());
+        recordPhase(tls, timing.getTlsNanos());
+        recordPhase(server, timing.getServerNanos());
+    }
+
+    private static void recordPhase(LatencyHistogram histogram, long nanos) {
+        if (nanos >= 0) {
+            histogram.record(nanos);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "calls=" + getCalls() + ", reuseRate=" + String.format("%.3f", getReuseRate()) + ", acquire p99="
+                + acquire.percentile(99).toMillis() + "ms, dns p99=" + dns.percentile(99).toMillis()
+                + "ms, connect p99=" + connect.percentile(99).toMillis() + "ms, tls p99="
+                + tls.percentile(99).toMillis() + "ms, server p99=" + server.percentile(99).toMillis() + "ms";
+    }
+}
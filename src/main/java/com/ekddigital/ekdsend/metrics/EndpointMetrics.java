@@ -0,0 +1,162 @@
+package com.ekddigital.ekdsend.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Live counters for one method and endpoint, kept by {@link InMemoryMetrics}
+ */
+public final class EndpointMetrics {
+
+    private final String method;
+    private final String endpoint;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong attempts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLongArray statusClasses = new AtomicLongArray(6);
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram attemptLatency = new LatencyHistogram();
+    private final LatencyHistogram retryAfter = new LatencyHistogram();
+
+    EndpointMetrics(String method, String endpoint) {
+        this.method = method;
+        this.endpoint = endpoint;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Logical requests completed
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Logical requests that completed exceptionally
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Logical requests started but not yet completed
+     */
+    public long getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Attempts that got a response or a connection error, including retries and hedges
+     */
+    public long getAttempts() {
+        return attempts.get();
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * Attempts answered with a status in the given class, e.g. 2 for 2xx; 0 counts attempts
+     * that got no response
+     */
+    public long getStatusCount(int statusClass) {
+        return statusClass >= 0 && statusClass < 6 ? statusClasses.get(statusClass) : 0;
+    }
+
+    /**
+     * Attempts answered with 429
+     */
+    public long getRateLimited() {
+        return rateLimited.get();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    /**
+     * End-to-end latency of logical requests, including retry waits
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Latency of individual attempts
+     */
+    public LatencyHistogram getAttemptLatency() {
+        return attemptLatency;
+    }
+
+    /**
+     * Server {@code Retry-After} hints received with 429 responses
+     */
+    public LatencyHistogram getRetryAfter() {
+        return retryAfter;
+    }
+
+    void started() {
+        inFlight.incrementAndGet();
+    }
+
+    void completed(long latencyNanos, boolean success) {
+        inFlight.decrementAndGet();
+        requests.incrementAndGet();
+        if (!success) {
+            failures.incrementAndGet();
+        }
+        latency.record(latencyNanos);
+    }
+
+    void attempt(int statusCode, long latencyNanos) {
+        attempts.incrementAndGet();
+        int statusClass = statusCode / 100;
+        statusClasses.incrementAndGet(statusClass > 0 && statusClass < 6 ? statusClass : 0);
+        attemptLatency.record(latencyNanos);
+    }
+
+    void retry() {
+        retries.incrementAndGet();
+    }
+
+    void rateLimited(long retryAfterMillis) {
+        rateLimited.incrementAndGet();
+        if (retryAfterMillis >= 0) {
+            retryAfter.record(retryAfterMillis * 1_000_000);
+        }
+    }
+
+    void sent(long bytes) {
+        bytesSent.addAndGet(bytes);
+    }
+
+    void received(long bytes) {
+        bytesReceived.addAndGet(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + endpoint + ": requests=" + getRequests() + ", failures=" + getFailures()
+                + ", inFlight=" + getInFlight() + ", attempts=" + getAttempts() + ", retries=" + getRetries()
+                + ", 2xx=" + getStatusCount(2) + ", 4xx=" + getStatusCount(4) + ", 5xx=" + getStatusCount(5)
+                + ", 429=" + getRateLimited() + ", p50=" + latency.percentile(50).toMillis()
+                + "ms, p99=" + latency.percentile(99).toMillis() + "ms";
+    }
+}
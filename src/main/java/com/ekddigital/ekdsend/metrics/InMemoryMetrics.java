@@ -0,0 +1,98 @@
+package com.ekddigital.ekdsend.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps {@link EndpointMetrics} per method and endpoint in memory
+ * <p>
+ * Counters and histograms are updated with atomic operations; after the first request to an
+ * endpoint, updating them allocates nothing. Connection timings are the exception: the client's
+ * {@link MetricsEventListener} allocates a timer for every HTTP call and a {@link CallTiming}
+ * when the call ends. Read them at any time with {@link #get},
+ * {@link #getEndpoints} and {@link #getConnections}, e.g. to export to a monitoring system.
+ * </p>
+ */
+public class InMemoryMetrics implements RequestMetrics {
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, EndpointMetrics>> byMethod =
+            new ConcurrentHashMap<>();
+    private final ConnectionMetrics connections = new ConnectionMetrics();
+
+    /**
+     * Metrics of one method and endpoint, or null if it hasn't been called
+     */
+    public EndpointMetrics get(String method, String endpoint) {
+        ConcurrentHashMap<String, EndpointMetrics> endpoints = byMethod.get(method);
+        return endpoints != null ? endpoints.get(endpoint) : null;
+    }
+
+    /**
+     * Metrics of every method and endpoint called so far
+     */
+    public List<EndpointMetrics> getEndpoints() {
+        List<EndpointMetrics> all = new ArrayList<>();
+        byMethod.values().forEach(endpoints -> all.addAll(endpoints.values()));
+        return all;
+    }
+
+    /**
+     * Connection-phase timings and reuse across all endpoints
+     */
+    public ConnectionMetrics getConnections() {
+        return connections;
+    }
+
+    @Override
+    public void requestStarted(String method, String endpoint) {
+        of(method, endpoint).started();
+    }
+
+    @Override
+    public void requestCompleted(String method, String endpoint, long latencyNanos, boolean success) {
+        of(method, endpoint).completed(latencyNanos, success);
+    }
+
+    @Override
+    public void attemptCompleted(String method, String endpoint, int statusCode, long latencyNanos) {
+        of(method, endpoint).attempt(statusCode, latencyNanos);
+    }
+
+    @Override
+    public void retryScheduled(String method, String endpoint, long delayMillis) {
+        of(method, endpoint).retry();
+    }
+
+    @Override
+    public void rateLimited(String method, String endpoint, long retryAfterMillis) {
+        of(method, endpoint).rateLimited(retryAfterMillis);
+    }
+
+    @Override
+    public void bytesSent(String method, String endpoint, long bytes) {
+        of(method, endpoint).sent(bytes);
+    }
+
+    @Override
+    public void bytesReceived(String method, String endpoint, long bytes) {
+        of(method, endpoint).received(bytes);
+    }
+
+    @Override
+    public void callCompleted(CallTiming timing) {
+        connections.record(timing);
+    }
+
+    private EndpointMetrics of(String method, String endpoint) {
+        ConcurrentHashMap<String, EndpointMetrics> endpoints = byMethod.get(method);
+        if (endpoints == null) {
+            endpoints = byMethod.computeIfAbsent(method, key -> new ConcurrentHashMap<>());
+        }
+        EndpointMetrics metrics = endpoints.get(endpoint);
+        if (metrics == null) {
+            metrics = endpoints.computeIfAbsent(endpoint, key -> new EndpointMetrics(method, key));
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,174 @@
+package com.ekddigital.ekdsend.metrics;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * Reports connection-phase timings and body sizes of OkHttp calls to {@link RequestMetrics}
+ * <p>
+ * Only calls whose request carries a {@code String} tag naming the endpoint are measured, as
+ * the client does for API requests; other calls get {@link EventListener#NONE}. Each measured
+ * call gets its own listener holding its timestamps and ends with one
+ * {@link RequestMetrics#callCompleted}, so a measured call allocates those two objects.
+ * </p>
+ */
+public final class MetricsEventListener implements EventListener.Factory {
+
+    private final RequestMetrics metrics;
+
+    public MetricsEventListener(RequestMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public EventListener create(Call call) {
+        Request request = call.request();
+        String endpoint = request.tag(String.class);
+        return endpoint != null ? new Timer(request.method(), endpoint) : EventListener.NONE;
+    }
+
+    /**
+     * Timestamps of one call; OkHttp delivers its events one at a time
+     */
+    private final class Timer extends EventListener {
+        final String method;
+        final String endpoint;
+        long callStart;
+        long acquired = -1;
+        long dnsStart;
+        long dns = -1;
+        long connectStart;
+        long connect = -1;
+        long tlsStart;
+        long tls = -1;
+        long requestStart = -1;
+        long requestEnd = -1;
+        long responseStart = -1;
+        long responseEnd = -1;
+        boolean connected;
+
+        Timer(String method, String endpoint) {
+            this.method = method;
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public void callStart(Call call) {
+            callStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            dns = add(dns, System.nanoTime() - dnsStart);
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connected = true;
+            connectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            tlsStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            tls = add(tls, System.nanoTime() - tlsStart);
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            connect = add(connect, System.nanoTime() - connectStart);
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol,
+                IOException ioe) {
+            connect = add(connect, System.nanoTime() - connectStart);
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            if (acquired < 0) {
+                acquired = System.nanoTime() - callStart;
+            }
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            requestStart = System.nanoTime();
+        }
+
+        @Override
+        public void requestHeadersEnd(Call call, Request request) {
+            requestEnd = System.nanoTime();
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            requestEnd = System.nanoTime();
+            metrics.bytesSent(method, endpoint, byteCount);
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            responseStart = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            responseEnd = System.nanoTime();
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            responseEnd = System.nanoTime();
+            metrics.bytesReceived(method, endpoint, byteCount);
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            finish(false);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            finish(true);
+        }
+
+        private void finish(boolean failed) {
+            long end = System.nanoTime();
+            // The TLS handshake runs inside the connect phase
+            long tcp = connect >= 0 && tls >= 0 ? connect - tls : connect;
+            metrics.callCompleted(new CallTiming(method, endpoint, acquired, dns, tcp, tls,
+                    span(requestStart, requestEnd), span(requestEnd, responseStart), span(responseStart, responseEnd),
+                    end - callStart, acquired >= 0 && !connected, failed));
+        }
+
+        private long add(long total, long nanos) {
+            return total < 0 ? nanos : total + nanos;
+        }
+
+        private long span(long start, long end) {
+            return start >= 0 && end >= start ? end - start : -1;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.ekddigital.ekdsend.metrics;
+
+/**
+ * Receives measurements of every request made through a client
+ * <p>
+ * {@code endpoint} is the path pattern of the request, e.g. {@code /emails} or
+ * {@code /calls/{id}/recording}. Methods are called from I/O and scheduler threads, so
+ * implementations must be thread-safe and should return quickly. Every method defaults to doing
+ * nothing.
+ * </p>
+ */
+public interface RequestMetrics {
+
+    /**
+     * Records nothing; the default
+     */
+    RequestMetrics NOOP = new RequestMetrics() {
+    };
+
+    /**
+     * A logical request started; it stays in flight until {@link #requestCompleted}
+     */
+    default void requestStarted(String method, String endpoint) {
+    }
+
+    /**
+     * A logical request finished, after all of its attempts
+     *
+     * @param latencyNanos time from start to completion, including retry waits
+     * @param success      whether the caller received a response
+     */
+    default void requestCompleted(String method, String endpoint, long latencyNanos, boolean success) {
+    }
+
+    /**
+     * One attempt received a response or failed to connect
+     *
+     * @param statusCode   HTTP status, or 0 if no response was received
+     * @param latencyNanos time from sending the attempt to its response
+     */
+    default void attemptCompleted(String method, String endpoint, int statusCode, long latencyNanos) {
+    }
+
+    /**
+     * A retry was scheduled
+     */
+    default void retryScheduled(String method, String endpoint, long delayMillis) {
+    }
+
+    /**
+     * The server answered 429
+     *
+     * @param retryAfterMillis server hint, or -1 if there was none
+     */
+    default void rateLimited(String method, String endpoint, long retryAfterMillis) {
+    }
+
+    /**
+     * A request body was sent
+     */
+    default void bytesSent(String method, String endpoint, long bytes) {
+    }
+
+    /**
+     * A response body was received
+     */
+    default void bytesReceived(String method, String endpoint, long bytes) {
+    }
+
+    /**
+     * An HTTP call finished; reports where its time went, including DNS, connect, TLS and
+     * waiting for a pooled connection
+     */
+    default void callCompleted(CallTiming timing) {
+    }
+}
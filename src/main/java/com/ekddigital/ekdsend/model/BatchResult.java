@@ -0,0 +1,52 @@
+package com.ekddigital.ekdsend.model;
+
+import com.ekddigital.ekdsend.exception.EKDSendException;
+
+/**
+ * Outcome of a single item in a bulk operation
+ */
+public class BatchResult<T> {
+
+    private final int index;
+    private final T value;
+    private final EKDSendException error;
+
+    private BatchResult(int index, T value, EKDSendException error) {
+        this.index = index;
+        this.value = value;
+        this.error = error;
+    }
+
+    public static <T> BatchResult<T> success(int index, T value) {
+        return new BatchResult<>(index, value, null);
+    }
+
+    public static <T> BatchResult<T> failure(int index, EKDSendException error) {
+        return new BatchResult<>(index, null, error);
+    }
+
+    /**
+     * Position of the item in the input
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * The API response, or null if the item failed
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * The failure, or null if the item succeeded
+     */
+    public EKDSendException getError() {
+        return error;
+    }
+}
@@ -3,12 +3,26 @@ package com.ekddigital.ekdsend.model;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Email model
  */
 public class Email {
 
+    /**
+     * Statuses after which there is nothing left to wait for. A delivered email is done but may
+     * still be opened, clicked or complained about; see {@link #FINAL_STATUSES}.
+     */
+    public static final Set<String> TERMINAL_STATUSES = Set.of(
+            "delivered", "bounced", "complained", "failed", "rejected", "canceled", "cancelled");
+
+    /**
+     * Statuses an email never leaves, so a copy can be cached long-term
+     */
+    public static final Set<String> FINAL_STATUSES = Set.of(
+            "bounced", "complained", "failed", "rejected", "canceled", "cancelled");
+
     private String id;
     private String status;
     private String from;
@@ -42,6 +56,20 @@ public class Email {
         this.status = status;
     }
 
+    /**
+     * Whether the email has reached a terminal status, i.e. polling for it can stop
+     */
+    public boolean isTerminal() {
+        return status != null && TERMINAL_STATUSES.contains(status);
+    }
+
+    /**
+     * Whether the email's status can no longer change
+     */
+    public boolean isFinal() {
+        return status != null && FINAL_STATUSES.contains(status);
+    }
+
     public String getFrom() {
         return from;
     }
@@ -2,12 +2,19 @@ package com.ekddigital.ekdsend.model;
 
 import java.time.Instant;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * SMS model
  */
 public class Sms {
 
+    /**
+     * Statuses after which a message will not change again
+     */
+    public static final Set<String> TERMINAL_STATUSES = Set.of(
+            "delivered", "undelivered", "failed", "rejected", "canceled", "cancelled");
+
     private String id;
     private String status;
     private String to;
@@ -36,6 +43,13 @@ public class Sms {
         this.status = status;
     }
 
+    /**
+     * Whether the message has reached a final status
+     */
+    public boolean isTerminal() {
+        return status != null && TERMINAL_STATUSES.contains(status);
+    }
+
     public String getTo() {
         return to;
     }
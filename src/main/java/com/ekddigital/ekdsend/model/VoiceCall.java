@@ -2,12 +2,19 @@ package com.ekddigital.ekdsend.model;
 
 import java.time.Instant;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Voice call model
  */
 public class VoiceCall {
 
+    /**
+     * Statuses after which a call will not change again
+     */
+    public static final Set<String> TERMINAL_STATUSES = Set.of(
+            "completed", "busy", "failed", "no-answer", "no_answer", "canceled", "cancelled");
+
     private String id;
     private String status;
     private String to;
@@ -42,6 +49,13 @@ public class VoiceCall {
         this.status = status;
     }
 
+    /**
+     * Whether the call has reached a final status
+     */
+    public boolean isTerminal() {
+        return status != null && TERMINAL_STATUSES.contains(status);
+    }
+
     public String getTo() {
         return to;
     }
@@ -0,0 +1,238 @@
+package com.ekddigital.ekdsend.resilience;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Adaptive limit on in-flight requests per endpoint family (AIMD)
+ * <p>
+ * Each endpoint tracks a smoothed round-trip time. A response counts as congestion when it
+ * failed with a 429, a 5xx or an I/O error, or when its RTT exceeds the smoothed RTT by
+ * {@code rttTolerance}. On congestion the limit is multiplied by {@code backoffRatio}, at most
+ * once per RTT; otherwise it grows by {@code 1 / limit} per response while the limit is in use,
+ * i.e. roughly one request per round trip.
+ * </p>
+ * <p>
+ * Requests over the limit wait in a bounded FIFO queue without holding a thread and are
+ * rejected once the queue is full.
+ * </p>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double RTT_SMOOTHING = 0.05;
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueueSize;
+    private final double backoffRatio;
+    private final double rttTolerance;
+    private final ConcurrentHashMap<String, Limit> limits = new ConcurrentHashMap<>();
+
+    private AdaptiveConcurrencyLimiter(Builder builder) {
+        this.initialLimit = builder.initialLimit;
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.maxQueueSize = builder.maxQueueSize;
+        this.backoffRatio = builder.backoffRatio;
+        this.rttTolerance = builder.rttTolerance;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Run {@code task} once a slot for {@code key} is free
+     * <p>
+     * The task runs on the calling thread if a slot is free now, otherwise on the thread that
+     * releases the next slot. Every admitted task must be paired with one {@link #release}.
+     * </p>
+     *
+     * @return false if the queue is full and the task was rejected
+     */
+    public boolean acquire(String key, Runnable task) {
+        return limit(key).admit(task);
+    }
+
+    /**
+     * Release a slot and record the outcome of the request that held it
+     *
+     * @param rttNanos  round-trip time, or a negative value if the request was never sent
+     * @param congested whether the response signalled overload (429, 5xx, I/O error)
+     */
+    public void release(String key, long rttNanos, boolean congested) {
+        for (Runnable task : limit(key).release(rttNanos, congested)) {
+            task.run();
+        }
+    }
+
+    /**
+     * Current in-flight limit for {@code key}
+     */
+    public int getLimit(String key) {
+        return limit(key).currentLimit();
+    }
+
+    /**
+     * Requests currently in flight for {@code key}
+     */
+    public int getInFlight(String key) {
+        return limit(key).inFlight();
+    }
+
+    /**
+     * Requests currently queued for a slot for {@code key}
+     */
+    public int getQueueDepth(String key) {
+        return limit(key).queueDepth();
+    }
+
+    private Limit limit(String key) {
+        return limits.computeIfAbsent(key, k -> new Limit());
+    }
+
+    private final class Limit {
+        private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+        private double limit = initialLimit;
+        private int inFlight;
+        private double smoothedRttNanos;
+        private long lastDecreaseNanos;
+
+        boolean admit(Runnable task) {
+            synchronized (this) {
+                if (inFlight >= (int) limit || !queue.isEmpty()) {
+                    if (queue.size() >= maxQueueSize) {
+                        return false;
+                    }
+                    queue.add(task);
+                    return true;
+                }
+                inFlight++;
+            }
+            task.run();
+            return true;
+        }
+
+        synchronized List<Runnable> release(long rttNanos, boolean congested) {
+            inFlight--;
+            if (rttNanos >= 0) {
+                update(rttNanos, congested);
+            }
+
+            List<Runnable> ready = List.of();
+            while (inFlight < (int) limit && !queue.isEmpty()) {
+                if (ready.isEmpty()) {
+                    ready = new ArrayList<>();
+                }
+                ready.add(queue.poll());
+                inFlight++;
+            }
+            return ready;
+        }
+
+        private void update(long rttNanos, boolean congested) {
+            if (smoothedRttNanos == 0) {
+                smoothedRttNanos = rttNanos;
+            }
+            boolean slow = rttNanos > smoothedRttNanos * rttTolerance;
+            smoothedRttNanos += (rttNanos - smoothedRttNanos) * RTT_SMOOTHING;
+
+            long now = System.nanoTime();
+            if (congested || slow) {
+                if (now - lastDecreaseNanos >= smoothedRttNanos) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecreaseNanos = now;
+                }
+            } else if (inFlight * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+
+        synchronized int currentLimit() {
+            return (int) limit;
+        }
+
+        synchronized int inFlight() {
+            return inFlight;
+        }
+
+        synchronized int queueDepth() {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Builder for {@link AdaptiveConcurrencyLimiter}
+     */
+    public static class Builder {
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        private int maxQueueSize = 1000;
+        private double backoffRatio = 0.9;
+        private double rttTolerance = 2.0;
+
+        private Builder() {
+        }
+
+        /**
+         * Starting in-flight limit per endpoint
+         */
+        public Builder initialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * Bounds the adaptive limit may move between
+         */
+        public Builder limitRange(int minLimit, int maxLimit) {
+            if (minLimit < 1 || maxLimit < minLimit) {
+                throw new IllegalArgumentException("Require 1 <= minLimit <= maxLimit");
+            }
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * Requests allowed to wait for a slot before new ones are rejected
+         */
+        public Builder maxQueueSize(int maxQueueSize) {
+            this.maxQueueSize = maxQueueSize;
+            return this;
+        }
+
+        /**
+         * Factor applied to the limit on congestion, in (0, 1)
+         */
+        public Builder backoffRatio(double backoffRatio) {
+            if (backoffRatio <= 0 || backoffRatio >= 1) {
+                throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+            }
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * How many times the smoothed RTT a response may take before it counts as congestion
+         */
+        public Builder rttTolerance(double rttTolerance) {
+            if (rttTolerance < 1) {
+                throw new IllegalArgumentException("rttTolerance must be at least 1");
+            }
+            this.rttTolerance = rttTolerance;
+            return this;
+        }
+
+        public AdaptiveConcurrencyLimiter build() {
+            if (initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("initialLimit must be within the limit range");
+            }
+            return new AdaptiveConcurrencyLimiter(this);
+        }
+    }
+}
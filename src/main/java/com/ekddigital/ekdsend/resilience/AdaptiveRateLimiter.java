@@ -0,0 +1,269 @@
+package com.ekddigital.ekdsend.resilience;
+
+import okhttp3.Headers;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Client-side token-bucket rate limiter that adapts to server feedback
+ * <p>
+ * Each endpoint family ({@code /emails}, {@code /sms}, {@code /calls}) has its own bucket.
+ * A 429 halves the bucket's rate and pauses it for any {@code Retry-After} hint;
+ * {@code X-RateLimit-Remaining} / {@code X-RateLimit-Reset} headers lower the rate to what
+ * the server says is left in the current window. The rate then recovers linearly back to the
+ * configured maximum over {@code recoveryPeriod}.
+ * </p>
+ * <p>
+ * In {@link Mode#BLOCK} a request waits (without holding a thread) for its permit, up to
+ * {@code maxWait}; in {@link Mode#REJECT} it fails immediately when no permit is available.
+ * </p>
+ */
+public class AdaptiveRateLimiter {
+
+    public enum Mode {
+        /** Wait for a permit, up to {@code maxWait} */
+        BLOCK,
+        /** Fail immediately when no permit is available */
+        REJECT
+    }
+
+    /**
+     * Returned by {@link #acquire} when the request must not be sent
+     */
+    public static final long REJECTED = -1;
+
+    private static final double DECREASE_FACTOR = 0.5;
+    private static final double MIN_RATE_FACTOR = 0.05;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final Map<String, double[]> limits;
+    private final Mode mode;
+    private final long maxWaitNanos;
+    private final long recoveryNanos;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private AdaptiveRateLimiter(Builder builder) {
+        this.permitsPerSecond = builder.permitsPerSecond;
+        this.burst = builder.burst;
+        this.limits = Map.copyOf(builder.limits);
+        this.mode = builder.mode;
+        this.maxWaitNanos = builder.maxWait.toNanos();
+        this.recoveryNanos = Math.max(1, builder.recoveryPeriod.toNanos());
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Reserve a permit for a request to {@code key}
+     *
+     * @return nanoseconds to wait before sending (0 to send now), or {@link #REJECTED}
+     */
+    public long acquire(String key) {
+        return bucket(key).reserve(System.nanoTime());
+    }
+
+    /**
+     * Feed a response back into the limiter
+     *
+     * @param retryAfterMillis server retry hint, or -1 if none
+     */
+    public void onResponse(String key, int statusCode, Headers headers, long retryAfterMillis) {
+        Bucket bucket = bucket(key);
+        long now = System.nanoTime();
+
+        if (statusCode == 429) {
+            bucket.throttle(now, retryAfterMillis);
+            return;
+        }
+
+        long remaining = parseLong(headers.get("X-RateLimit-Remaining"));
+        long reset = parseLong(headers.get("X-RateLimit-Reset"));
+        if (remaining < 0 || reset < 0) {
+            return;
+        }
+        // Reset is either seconds until the window resets or an epoch timestamp
+        long resetSeconds = reset > 1_000_000_000L ? reset - System.currentTimeMillis() / 1000 : reset;
+        if (resetSeconds <= 0) {
+            return;
+        }
+        if (remaining == 0) {
+            bucket.pause(now, resetSeconds * 1000);
+        } else {
+            bucket.lowerTo(now, (double) remaining / resetSeconds);
+        }
+    }
+
+    /**
+     * Current permitted rate for {@code key} in requests per second
+     */
+    public double getRate(String key) {
+        return bucket(key).currentRate(System.nanoTime());
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    private Bucket bucket(String key) {
+        return buckets.computeIfAbsent(key, k -> {
+            double[] limit = limits.get(k);
+            return limit != null ? new Bucket(limit[0], (int) limit[1]) : new Bucket(permitsPerSecond, burst);
+        });
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private final class Bucket {
+        private final double maxRate;
+        private final double minRate;
+        private final int capacity;
+        private double rate;
+        private double tokens;
+        private long lastNanos;
+
+        Bucket(double maxRate, int capacity) {
+            this.maxRate = maxRate;
+            this.minRate = maxRate * MIN_RATE_FACTOR;
+            this.capacity = capacity;
+            this.rate = maxRate;
+            this.tokens = capacity;
+            this.lastNanos = System.nanoTime();
+        }
+
+        synchronized long reserve(long now) {
+            refill(now);
+            if (tokens >= 1 && now >= lastNanos) {
+                tokens -= 1;
+                return 0;
+            }
+
+            long waitNanos = Math.max(0, lastNanos - now)
+                    + (long) (Math.max(0, 1 - tokens) / rate * NANOS_PER_SECOND);
+            if (mode == Mode.REJECT || waitNanos > maxWaitNanos) {
+                return REJECTED;
+            }
+            // Borrow against future refills so waiters queue up in order
+            tokens -= 1;
+            return Math.max(1, waitNanos);
+        }
+
+        synchronized void throttle(long now, long retryAfterMillis) {
+            refill(now);
+            rate = Math.max(minRate, rate * DECREASE_FACTOR);
+            tokens = Math.min(tokens, 0);
+            if (retryAfterMillis > 0) {
+                pause(now, retryAfterMillis);
+            }
+        }
+
+        synchronized void pause(long now, long millis) {
+            refill(now);
+            tokens = Math.min(tokens, 0);
+            lastNanos = Math.max(lastNanos, now + millis * 1_000_000);
+        }
+
+        synchronized void lowerTo(long now, double observedRate) {
+            refill(now);
+            if (observedRate < rate) {
+                rate = Math.max(minRate, observedRate);
+            }
+        }
+
+        synchronized double currentRate(long now) {
+            refill(now);
+            return rate;
+        }
+
+        private void refill(long now) {
+            long elapsed = now - lastNanos;
+            if (elapsed <= 0) {
+                return;
+            }
+            rate = Math.min(maxRate, rate + maxRate * elapsed / recoveryNanos);
+            tokens = Math.min(capacity, tokens + rate * elapsed / NANOS_PER_SECOND);
+            lastNanos = now;
+        }
+    }
+
+    /**
+     * Builder for {@link AdaptiveRateLimiter}
+     */
+    public static class Builder {
+        private double permitsPerSecond = 10;
+        private int burst = 10;
+        private final Map<String, double[]> limits = new HashMap<>();
+        private Mode mode = Mode.BLOCK;
+        private Duration maxWait = Duration.ofSeconds(30);
+        private Duration recoveryPeriod = Duration.ofSeconds(30);
+
+        private Builder() {
+        }
+
+        /**
+         * Default rate and burst for every endpoint without its own limit
+         */
+        public Builder permitsPerSecond(double permitsPerSecond, int burst) {
+            if (permitsPerSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("permitsPerSecond must be positive and burst at least 1");
+            }
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+            return this;
+        }
+
+        /**
+         * Rate and burst for a single endpoint family, e.g. {@code "/sms"}
+         */
+        public Builder limit(String endpoint, double permitsPerSecond, int burst) {
+            if (permitsPerSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("permitsPerSecond must be positive and burst at least 1");
+            }
+            this.limits.put(endpoint, new double[] { permitsPerSecond, burst });
+            return this;
+        }
+
+        /**
+         * Whether requests wait for a permit or are rejected
+         */
+        public Builder mode(Mode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        /**
+         * Longest a request waits for a permit in {@link Mode#BLOCK} before being rejected
+         */
+        public Builder maxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * Time for a throttled rate to climb back to its maximum
+         */
+        public Builder recoveryPeriod(Duration recoveryPeriod) {
+            this.recoveryPeriod = recoveryPeriod;
+            return this;
+        }
+
+        public AdaptiveRateLimiter build() {
+            return new AdaptiveRateLimiter(this);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.ekddigital.ekdsend.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-endpoint circuit breaker
+ * <p>
+ * Outcomes of the last {@code windowSize} calls are kept per endpoint. Once at least
+ * {@code minimumCalls} have been recorded, the circuit opens when the failure rate (I/O errors
+ * and 5xx responses) or the slow-call rate (calls slower than {@code slowCallDuration}) reaches
+ * its threshold. An open circuit rejects calls for {@code openDuration}, then lets
+ * {@code halfOpenCalls} probes through: if they stay under both thresholds the circuit closes,
+ * otherwise it opens again.
+ * </p>
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final ConcurrentHashMap<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    private CircuitBreaker(Builder builder) {
+        this.windowSize = builder.windowSize;
+        this.minimumCalls = Math.min(builder.minimumCalls, builder.windowSize);
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallNanos = builder.slowCallDuration.toNanos();
+        this.openNanos = builder.openDuration.toNanos();
+        this.halfOpenCalls = builder.halfOpenCalls > 0 ? builder.halfOpenCalls
+                : Math.min(Builder.DEFAULT_HALF_OPEN_CALLS, builder.windowSize);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Ask permission to send a call to {@code endpoint}
+     * <p>
+     * Every permitted call must be followed by {@link #onResult} or, if it is never sent,
+     * {@link #onCancel}.
+     * </p>
+     *
+     * @return false if the circuit is open and the call must fail fast
+     */
+    public boolean tryAcquire(String endpoint) {
+        return circuit(endpoint).tryAcquire(System.nanoTime());
+    }
+
+    /**
+     * Record the outcome of a permitted call
+     */
+    public void onResult(String endpoint, long durationNanos, boolean failed) {
+        circuit(endpoint).record(System.nanoTime(), failed, durationNanos >= slowCallNanos);
+    }
+
+    /**
+     * Return the permission of a call that was never sent
+     */
+    public void onCancel(String endpoint) {
+        circuit(endpoint).cancel();
+    }
+
+    public State getState(String endpoint) {
+        return circuit(endpoint).state(System.nanoTime());
+    }
+
+    private Circuit circuit(String endpoint) {
+        return circuits.computeIfAbsent(endpoint, k -> new Circuit());
+    }
+
+    private final class Circuit {
+        private final byte[] outcomes = new byte[windowSize];
+        private State state = State.CLOSED;
+        private int next;
+        private int recorded;
+        private int failures;
+        private int slowCalls;
+        private long openUntilNanos;
+        private int probesIssued;
+
+        private static final byte FAILED = 1;
+        private static final byte SLOW = 2;
+
+        synchronized boolean tryAcquire(long now) {
+            return switch (state(now)) {
+                case CLOSED -> true;
+                case HALF_OPEN -> {
+                    if (probesIssued >= halfOpenCalls) {
+                        yield false;
+                    }
+                    probesIssued++;
+                    yield true;
+                }
+                case OPEN -> false;
+            };
+        }
+
+        synchronized void record(long now, boolean failed, boolean slow) {
+            if (state == State.OPEN) {
+                return;
+            }
+
+            byte outcome = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+            if (recorded == windowSize) {
+                byte evicted = outcomes[next];
+                failures -= evicted & FAILED;
+                slowCalls -= (evicted & SLOW) >> 1;
+            } else {
+                recorded++;
+            }
+            outcomes[next] = outcome;
+            next = (next + 1) % windowSize;
+            failures += outcome & FAILED;
+            slowCalls += (outcome & SLOW) >> 1;
+
+            int required = state == State.HALF_OPEN ? halfOpenCalls : minimumCalls;
+            if (recorded < required) {
+                return;
+            }
+            boolean tripped = failures * 100.0 / recorded >= failureRateThreshold
+                    || slowCalls * 100.0 / recorded >= slowCallRateThreshold;
+            if (tripped) {
+                transition(State.OPEN, now);
+            } else if (state == State.HALF_OPEN) {
+                transition(State.CLOSED, now);
+            }
+        }
+
+        synchronized void cancel() {
+            if (state == State.HALF_OPEN && probesIssued > 0) {
+                probesIssued--;
+            }
+        }
+
+        synchronized State state(long now) {
+            if (state == State.OPEN && now - openUntilNanos >= 0) {
+                transition(State.HALF_OPEN, now);
+            }
+            return state;
+        }
+
+        private void transition(State target, long now) {
+            state = target;
+            next = 0;
+            recorded = 0;
+            failures = 0;
+            slowCalls = 0;
+            probesIssued = 0;
+            if (target == State.OPEN) {
+                openUntilNanos = now + openNanos;
+            }
+        }
+    }
+
+    /**
+     * Builder for {@link CircuitBreaker}
+     */
+    public static class Builder {
+        private static final int DEFAULT_HALF_OPEN_CALLS = 5;
+
+        private int windowSize = 100;
+        private int minimumCalls = 20;
+        private double failureRateThreshold = 50;
+        private double slowCallRateThreshold = 100;
+        private Duration slowCallDuration = Duration.ofSeconds(10);
+        private Duration openDuration = Duration.ofSeconds(30);
+        /** 0 until set: the default, capped at the window size */
+        private int halfOpenCalls;
+
+        private Builder() {
+        }
+
+        /**
+         * Number of most recent calls the rates are computed over, and the minimum
+         * number of calls recorded before the circuit may open
+         */
+        public Builder window(int windowSize, int minimumCalls) {
+            if (windowSize < 1 || minimumCalls < 1) {
+                throw new IllegalArgumentException("windowSize and minimumCalls must be at least 1");
+            }
+            this.windowSize = windowSize;
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * Failure percentage at which the circuit opens
+         */
+        public Builder failureRateThreshold(double percent) {
+            this.failureRateThreshold = percent;
+            return this;
+        }
+
+        /**
+         * Percentage of calls slower than {@code slowCallDuration} at which the circuit opens
+         */
+        public Builder slowCallRateThreshold(double percent, Duration slowCallDuration) {
+            this.slowCallRateThreshold = percent;
+            this.slowCallDuration = slowCallDuration;
+            return this;
+        }
+
+        /**
+         * How long an open circuit rejects calls before probing
+         */
+        public Builder openDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+            return this;
+        }
+
+        /**
+         * Number of probe calls let through while half-open; at most the window size
+         * (default 5, or the window size if that is smaller)
+         */
+        public Builder halfOpenCalls(int halfOpenCalls) {
+            if (halfOpenCalls < 1) {
+                throw new IllegalArgumentException("halfOpenCalls must be at least 1");
+            }
+            this.halfOpenCalls = halfOpenCalls;
+            return this;
+        }
+
+        public CircuitBreaker build() {
+            // Probe outcomes are kept in the window, so more probes than it holds could never all be counted
+            if (halfOpenCalls > windowSize) {
+                throw new IllegalArgumentException("halfOpenCalls must not exceed windowSize");
+            }
+            return new CircuitBreaker(this);
+        }
+    }
+}
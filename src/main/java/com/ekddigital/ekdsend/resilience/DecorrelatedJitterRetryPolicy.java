@@ -0,0 +1,83 @@
+package com.ekddigital.ekdsend.resilience;
+
+import com.ekddigital.ekdsend.exception.AuthenticationException;
+import com.ekddigital.ekdsend.exception.EKDSendException;
+import com.ekddigital.ekdsend.exception.ValidationException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry policy using decorrelated-jitter backoff
+ * <p>
+ * Each delay is drawn uniformly from {@code [baseDelay, previousDelay * 3]} (the first from
+ * {@code [baseDelay, baseDelay * 3]}) and capped at {@code maxDelay}, so clients that failed
+ * together spread their retries out instead of retrying in lockstep. When the server supplies
+ * a retry hint the delay is the hint plus up to {@code baseDelay} of jitter, so clients given
+ * the same hint do not all return at once; hints longer than {@code maxRetryAfter} stop
+ * retrying so the caller sees the {@link com.ekddigital.ekdsend.exception.RateLimitException}
+ * straight away.
+ * </p>
+ */
+public class DecorrelatedJitterRetryPolicy implements RetryPolicy {
+
+    public static final Duration DEFAULT_BASE_DELAY = Duration.ofMillis(500);
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(20);
+    public static final Duration DEFAULT_MAX_RETRY_AFTER = Duration.ofSeconds(30);
+
+    private final int maxRetries;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long maxRetryAfterMillis;
+
+    public DecorrelatedJitterRetryPolicy(int maxRetries) {
+        this(maxRetries, DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY, DEFAULT_MAX_RETRY_AFTER);
+    }
+
+    public DecorrelatedJitterRetryPolicy(int maxRetries, Duration baseDelay, Duration maxDelay,
+            Duration maxRetryAfter) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries must not be negative");
+        }
+        if (baseDelay.isNegative() || maxDelay.compareTo(baseDelay) < 0) {
+            throw new IllegalArgumentException("maxDelay must be at least baseDelay");
+        }
+        this.maxRetries = maxRetries;
+        this.baseDelayMillis = baseDelay.toMillis();
+        this.maxDelayMillis = maxDelay.toMillis();
+        this.maxRetryAfterMillis = maxRetryAfter.toMillis();
+    }
+
+    @Override
+    public long nextDelayMillis(int retry, long previousDelayMillis, EKDSendException error, long retryAfterMillis) {
+        if (retry > maxRetries || !isRetryable(error)) {
+            return STOP;
+        }
+        if (retryAfterMillis > maxRetryAfterMillis) {
+            return STOP;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (retryAfterMillis >= 0) {
+            return retryAfterMillis + random.nextLong(baseDelayMillis + 1);
+        }
+        long upper = Math.min(maxDelayMillis, Math.max(baseDelayMillis, previousDelayMillis) * 3);
+        return upper > baseDelayMillis ? random.nextLong(baseDelayMillis, upper + 1) : baseDelayMillis;
+    }
+
+    /**
+     * Whether a failure is worth retrying: connection errors, rate limits and server errors
+     */
+    protected boolean isRetryable(EKDSendException error) {
+        if (error instanceof AuthenticationException || error instanceof ValidationException) {
+            return false;
+        }
+        int statusCode = error.getStatusCode();
+        return statusCode == 0 ? "CONNECTION_ERROR".equals(error.getErrorCode())
+                : statusCode == 429 || statusCode >= 500;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+}
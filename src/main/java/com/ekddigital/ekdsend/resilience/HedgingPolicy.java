@@ -0,0 +1,188 @@
+package com.ekddigital.ekdsend.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides when to send a hedge for a slow GET
+ * <p>
+ * Response times of GETs are kept per endpoint in a decaying log-scale histogram. Once
+ * {@code minSamples} have been recorded, a GET that hasn't answered within the endpoint's
+ * {@code percentile} latency (but at least {@code minDelay}) gets a second attempt on a
+ * separate connection; whichever answers first wins and the other is cancelled. Hedges draw
+ * from a {@link RetryBudget} funded by every GET, so they never add more than a fixed
+ * fraction of extra load.
+ * </p>
+ */
+public class HedgingPolicy {
+
+    /** Returned by {@link #delayNanos} while an endpoint has too few samples to hedge */
+    public static final long NO_HEDGE = -1;
+
+    private final double percentile;
+    private final long minDelayNanos;
+    private final int minSamples;
+    private final int window;
+    private final RetryBudget budget;
+    private final ConcurrentHashMap<String, Histogram> latencies = new ConcurrentHashMap<>();
+
+    private HedgingPolicy(Builder builder) {
+        this.percentile = builder.percentile;
+        this.minDelayNanos = builder.minDelay.toNanos();
+        this.minSamples = builder.minSamples;
+        this.window = Math.max(builder.window, builder.minSamples * 2);
+        this.budget = builder.budget;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Record a GET and fund the hedging budget
+     */
+    public void onRequest() {
+        budget.onRequest();
+    }
+
+    /**
+     * @return how long to wait before hedging a GET to {@code endpoint}, or {@link #NO_HEDGE}
+     */
+    public long delayNanos(String endpoint) {
+        Histogram histogram = latencies.get(endpoint);
+        if (histogram == null) {
+            return NO_HEDGE;
+        }
+        long delay = histogram.percentileNanos(percentile, minSamples);
+        return delay < 0 ? NO_HEDGE : Math.max(minDelayNanos, delay);
+    }
+
+    /**
+     * Withdraw one hedge from the budget
+     *
+     * @return false if the hedge must not be sent
+     */
+    public boolean tryAcquire() {
+        return budget.tryAcquireRetry();
+    }
+
+    /**
+     * Record the response time of a GET attempt to {@code endpoint}
+     */
+    public void record(String endpoint, long nanos) {
+        latencies.computeIfAbsent(endpoint, key -> new Histogram(window)).record(nanos);
+    }
+
+    /**
+     * Microsecond latencies in four buckets per power of two, halved every {@code window}
+     * samples so the percentile follows recent behaviour
+     */
+    private static final class Histogram {
+        private static final int SUB_BUCKETS = 4;
+        private static final int BUCKETS = 40 * SUB_BUCKETS;
+
+        private final long[] counts = new long[BUCKETS];
+        private final int window;
+        private long total;
+
+        Histogram(int window) {
+            this.window = window;
+        }
+
+        synchronized void record(long nanos) {
+            counts[bucket(Math.max(1, nanos / 1000))]++;
+            if (++total >= window) {
+                total = 0;
+                for (int i = 0; i < BUCKETS; i++) {
+                    counts[i] >>= 1;
+                    total += counts[i];
+                }
+            }
+        }
+
+        synchronized long percentileNanos(double percentile, int minSamples) {
+            if (total < minSamples) {
+                return -1;
+            }
+            long rank = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBoundMicros(i) * 1000;
+                }
+            }
+            return upperBoundMicros(BUCKETS - 1) * 1000;
+        }
+
+        private static int bucket(long micros) {
+            int octave = 63 - Long.numberOfLeadingZeros(micros);
+            if (octave < 2) {
+                return (int) micros;
+            }
+            int sub = (int) (micros >>> (octave - 2)) & (SUB_BUCKETS - 1);
+            return Math.min(BUCKETS - 1, (octave - 1) * SUB_BUCKETS + sub);
+        }
+
+        private static long upperBoundMicros(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket + 1;
+            }
+            int octave = bucket / SUB_BUCKETS + 1;
+            int sub = bucket % SUB_BUCKETS;
+            return (long) (SUB_BUCKETS + sub + 1) << (octave - 2);
+        }
+    }
+
+    public static class Builder {
+        private double percentile = 95;
+        private Duration minDelay = Duration.ofMillis(10);
+        private int minSamples = 20;
+        private int window = 1000;
+        private RetryBudget budget = new RetryBudget(0.05, 5);
+
+        /**
+         * Latency percentile after which a GET is hedged (default 95)
+         */
+        public Builder percentile(double percentile) {
+            if (percentile <= 0 || percentile >= 100) {
+                throw new IllegalArgumentException("percentile must be between 0 and 100");
+            }
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * Never hedge sooner than this (default 10ms)
+         */
+        public Builder minDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+            return this;
+        }
+
+        /**
+         * Samples an endpoint needs before it is hedged, and roughly how many recent samples
+         * the percentile is computed over (defaults 20 and 1000)
+         */
+        public Builder samples(int minSamples, int window) {
+            if (minSamples < 1 || window < 1) {
+                throw new IllegalArgumentException("minSamples and window must be at least 1");
+            }
+            this.minSamples = minSamples;
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * Budget hedges are drawn from (default 5% of GETs with a reserve of 5)
+         */
+        public Builder budget(RetryBudget budget) {
+            this.budget = budget;
+            return this;
+        }
+
+        public HedgingPolicy build() {
+            return new HedgingPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.ekddigital.ekdsend.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps retries as a ratio of first attempts
+ * <p>
+ * Every first attempt deposits {@code ratio} tokens and every retry withdraws one, so over
+ * time a client never sends more than {@code ratio} retries per original request. The
+ * balance starts full at {@code maxBalance}, which lets lightly loaded clients retry while
+ * still stopping a retry storm from multiplying load during an outage.
+ * </p>
+ */
+public class RetryBudget {
+
+    public static final double DEFAULT_RATIO = 0.2;
+    public static final int DEFAULT_MAX_BALANCE = 10;
+
+    private static final long SCALE = 1000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    public RetryBudget(double ratio, int maxBalance) {
+        if (ratio < 0 || maxBalance < 0) {
+            throw new IllegalArgumentException("ratio and maxBalance must not be negative");
+        }
+        this.depositPerRequest = Math.round(ratio * SCALE);
+        this.maxBalance = maxBalance * SCALE;
+        this.balance = new AtomicLong(this.maxBalance);
+    }
+
+    /**
+     * Default budget of 20% retries with a reserve of 10
+     */
+    public static RetryBudget defaults() {
+        return new RetryBudget(DEFAULT_RATIO, DEFAULT_MAX_BALANCE);
+    }
+
+    /**
+     * A budget that never denies a retry
+     */
+    public static RetryBudget unlimited() {
+        return new RetryBudget(0, 0) {
+            @Override
+            public void onRequest() {
+            }
+
+            @Override
+            public boolean tryAcquireRetry() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Record a first attempt
+     */
+    public void onRequest() {
+        balance.accumulateAndGet(depositPerRequest, (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+    /**
+     * Withdraw one retry from the budget
+     *
+     * @return false if the budget is exhausted and the retry must not be sent
+     */
+    public boolean tryAcquireRetry() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    /**
+     * Whole retries currently available
+     */
+    public long available() {
+        return balance.get() / SCALE;
+    }
+}
@@ -0,0 +1,36 @@
+package com.ekddigital.ekdsend.resilience;
+
+import com.ekddigital.ekdsend.exception.EKDSendException;
+
+/**
+ * Decides whether and when a failed request is retried
+ * <p>
+ * Implementations must be thread-safe; a single policy is shared by every request made
+ * through a client.
+ * </p>
+ */
+public interface RetryPolicy {
+
+    /**
+     * Returned by {@link #nextDelayMillis} to stop retrying
+     */
+    long STOP = -1;
+
+    /**
+     * Compute the delay before the next attempt
+     *
+     * @param retry               1-based number of the retry being considered
+     * @param previousDelayMillis delay used before the previous retry, or 0 for the first retry
+     * @param error               the failure of the last attempt
+     * @param retryAfterMillis    server hint from {@code Retry-After} or {@code retry_after}, or -1 if none
+     * @return delay in milliseconds, or {@link #STOP} to give up and surface {@code error}
+     */
+    long nextDelayMillis(int retry, long previousDelayMillis, EKDSendException error, long retryAfterMillis);
+
+    /**
+     * A policy that never retries
+     */
+    static RetryPolicy none() {
+        return (retry, previousDelayMillis, error, retryAfterMillis) -> STOP;
+    }
+}
@@ -0,0 +1,215 @@
+package com.ekddigital.ekdsend.webhook;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers recently seen event keys in a fixed amount of memory
+ * <p>
+ * Keys are kept in a ring of {@code slices + 1} Bloom filters, each covering
+ * {@code window / slices}. New keys go into the newest filter, lookups check all of them, and
+ * the oldest filter is cleared as time moves on, so a key is remembered for at least
+ * {@code window} and memory never grows. Each filter is sized for its share of
+ * {@code expectedKeys} per window at a false-positive rate chosen so that the whole ring stays
+ * within {@code falsePositiveRate}; a false positive drops an event that was not really a
+ * duplicate. A filter that fills up before its time is over is rotated early, so a burst of more
+ * than {@code expectedKeys} per window shortens how long keys are remembered rather than
+ * raising the false-positive rate.
+ * </p>
+ */
+public class DuplicateFilter {
+
+    private final long sliceNanos;
+    private final long[][] slices;
+    private final int bitsPerSlice;
+    private final int hashes;
+    private final long keysPerSlice;
+    private int newest;
+    private long newestCount;
+    private long newestStart;
+    private final AtomicLong duplicates = new AtomicLong();
+
+    private DuplicateFilter(Builder builder) {
+        int count = builder.slices + 1;
+        double sliceRate = builder.falsePositiveRate / count;
+        this.keysPerSlice = Math.max(1, builder.expectedKeys / builder.slices);
+        long bits = (long) Math.ceil(-keysPerSlice * Math.log(sliceRate) / (Math.log(2) * Math.log(2)));
+        bits = Math.max(64, Math.min(bits, Integer.MAX_VALUE - 63L));
+        this.bitsPerSlice = (int) ((bits + 63) / 64 * 64);
+        this.hashes = Math.max(1, (int) Math.round((double) bitsPerSlice / keysPerSlice * Math.log(2)));
+        this.slices = new long[count][bitsPerSlice / 64];
+        this.sliceNanos = builder.window.toNanos() / builder.slices;
+        this.newestStart = System.nanoTime();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Record {@code key}
+     *
+     * @return true if the key was not seen within the window, false if it is a duplicate
+     */
+    public synchronized boolean add(String key) {
+        rotate();
+        long hash = hash(key);
+        if (contains(hash)) {
+            duplicates.incrementAndGet();
+            return false;
+        }
+        if (newestCount >= keysPerSlice) {
+            advance(System.nanoTime());
+        }
+        newestCount++;
+        long[] bits = slices[newest];
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitsPerSlice);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+        return true;
+    }
+
+    /**
+     * Whether {@code key} was seen within the window, without recording it
+     */
+    public synchronized boolean mightContain(String key) {
+        rotate();
+        return contains(hash(key));
+    }
+
+    /**
+     * {@link #mightContain}, counting a hit as a rejected duplicate
+     */
+    synchronized boolean isDuplicate(String key) {
+        if (mightContain(key)) {
+            duplicates.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Duplicates rejected so far
+     */
+    public long getDuplicateCount() {
+        return duplicates.get();
+    }
+
+    /**
+     * Memory used by the filters, in bytes
+     */
+    public long getMemoryBytes() {
+        return (long) slices.length * bitsPerSlice / 8;
+    }
+
+    private boolean contains(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (long[] bits : slices) {
+            boolean all = true;
+            for (int i = 0; i < hashes && all; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitsPerSlice);
+                all = (bits[bit >>> 6] & (1L << bit)) != 0;
+            }
+            if (all) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void rotate() {
+        long now = System.nanoTime();
+        for (int i = 0; i < slices.length && now - newestStart >= sliceNanos; i++) {
+            advance(newestStart + sliceNanos);
+        }
+        if (now - newestStart >= sliceNanos) {
+            // Idle for longer than the whole ring; everything has been cleared
+            newestStart = now;
+        }
+    }
+
+    /**
+     * Clear the oldest filter and make it the newest
+     */
+    private void advance(long start) {
+        newest = (newest + 1) % slices.length;
+        Arrays.fill(slices[newest], 0);
+        newestStart = start;
+        newestCount = 0;
+    }
+
+    /** 64-bit FNV-1a over the key's characters, finished with a SplitMix64 mix */
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 30;
+        h *= 0xbf58476d1ce4e5b9L;
+        h ^= h >>> 27;
+        h *= 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    public static class Builder {
+        private Duration window = Duration.ofHours(1);
+        private long expectedKeys = 100_000;
+        private double falsePositiveRate = 1e-6;
+        private int slices = 4;
+
+        private Builder() {
+        }
+
+        /**
+         * How long a key is remembered, at least (default 1 hour)
+         */
+        public Builder window(Duration window) {
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * Keys expected per window; memory is sized from this (default 100,000)
+         */
+        public Builder expectedKeys(long expectedKeys) {
+            if (expectedKeys < 1) {
+                throw new IllegalArgumentException("expectedKeys must be at least 1");
+            }
+            this.expectedKeys = expectedKeys;
+            return this;
+        }
+
+        /**
+         * Chance that a new key is mistaken for a duplicate (default one in a million)
+         */
+        public Builder falsePositiveRate(double falsePositiveRate) {
+            if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+                throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+            }
+            this.falsePositiveRate = falsePositiveRate;
+            return this;
+        }
+
+        /**
+         * Number of slices the window is divided into (default 4); more slices expire keys
+         * closer to the window at the cost of more lookups
+         */
+        public Builder slices(int slices) {
+            if (slices < 1) {
+                throw new IllegalArgumentException("slices must be at least 1");
+            }
+            this.slices = slices;
+            return this;
+        }
+
+        public DuplicateFilter build() {
+            return new DuplicateFilter(this);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.ekddigital.ekdsend.webhook;
+
+import java.time.Instant;
+
+/**
+ * A webhook delivery
+ * <p>
+ * {@code type} is the event name, e.g. {@code email.delivered}, {@code sms.failed} or
+ * {@code call.completed}; {@code data} is the email, SMS or call the event is about.
+ * </p>
+ */
+public class WebhookEvent<T> {
+
+    private final String id;
+    private final String type;
+    private final Instant createdAt;
+    private final T data;
+
+    public WebhookEvent(String id, String type, Instant createdAt, T data) {
+        this.id = id;
+        this.type = type;
+        this.createdAt = createdAt;
+        this.data = data;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public T getData() {
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return "WebhookEvent{id='" + id + "', type='" + type + "'}";
+    }
+}
@@ -0,0 +1,10 @@
+package com.ekddigital.ekdsend.webhook;
+
+/**
+ * Receives webhook events of one model type
+ */
+@FunctionalInterface
+public interface WebhookListener<T> {
+
+    void onEvent(WebhookEvent<T> event) throws Exception;
+}
@@ -0,0 +1,556 @@
+package com.ekddigital.ekdsend.webhook;
+
+import com.ekddigital.ekdsend.json.ModelModule;
+import com.ekddigital.ekdsend.model.Email;
+import com.ekddigital.ekdsend.model.Sms;
+import com.ekddigital.ekdsend.model.VoiceCall;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.crypto.Mac;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Embedded receiver for EKDSend webhooks, built on the JDK's HTTP server
+ * <p>
+ * Accepts {@code POST}s of the form {@code {"id", "type", "created_at", "data"}} on one path.
+ * The body is parsed as it is read: {@code data} goes straight into an {@link Email},
+ * {@link Sms} or {@link VoiceCall} depending on whether {@code type} starts with
+ * {@code email.}, {@code sms.} or {@code call.}. When a secret is configured the delivery's
+ * {@link WebhookSignature signature} is computed over the same stream and checked before
+ * anything is dispatched. Events of other types are acknowledged and ignored; events of ours
+ * without {@code data} are refused with {@code 400}.
+ * </p>
+ * <p>
+ * Events are handed to the typed listeners by a pool of {@code workers} threads through a queue
+ * of {@code queueCapacity}. When the queue is full the delivery is refused with {@code 503}
+ * and {@code Retry-After}, so the sender's retries absorb bursts instead of memory.
+ * </p>
+ * <p>
+ * Senders redeliver events they aren't sure arrived, so accepted events are remembered in a
+ * {@link DuplicateFilter} keyed by event ID (or object ID and status) and redeliveries are
+ * acknowledged without reaching the listeners again.
+ * </p>
+ */
+public class WebhookReceiver implements AutoCloseable {
+
+    private final InetSocketAddress address;
+    private final String path;
+    private final ObjectMapper objectMapper;
+    private final String secret;
+    private final long toleranceSeconds;
+    private final long maxBodyBytes;
+    private final List<WebhookListener<Email>> emailListeners;
+    private final List<WebhookListener<Sms>> smsListeners;
+    private final List<WebhookListener<VoiceCall>> callListeners;
+    private final BiConsumer<WebhookEvent<?>, Exception> errorHandler;
+    private final DuplicateFilter duplicates;
+    private final ThreadPoolExecutor workers;
+    private final ExecutorService ioThreads;
+    private HttpServer server;
+
+    private WebhookReceiver(Builder builder) {
+        this.address = new InetSocketAddress(builder.host, builder.port);
+        this.path = builder.path;
+        this.objectMapper = builder.objectMapper != null ? builder.objectMapper : defaultObjectMapper();
+        this.secret = builder.secret;
+        this.toleranceSeconds = builder.tolerance.getSeconds();
+        this.maxBodyBytes = builder.maxBodyBytes;
+        this.emailListeners = List.copyOf(builder.emailListeners);
+        this.smsListeners = List.copyOf(builder.smsListeners);
+        this.callListeners = List.copyOf(builder.callListeners);
+        this.errorHandler = builder.errorHandler;
+        this.duplicates = builder.duplicates;
+        this.workers = new ThreadPoolExecutor(builder.workers, builder.workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(builder.queueCapacity), daemonThreads("ekdsend-webhook-worker"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.ioThreads = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()),
+                daemonThreads("ekdsend-webhook-http"));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Bind the port and start accepting deliveries
+     */
+    public synchronized WebhookReceiver start() throws IOException {
+        if (server != null || ioThreads.isShutdown()) {
+            throw new IllegalStateException("Webhook receiver already started");
+        }
+        HttpServer created = HttpServer.create(address, 0);
+        created.createContext(path, this::handle);
+        created.setExecutor(ioThreads);
+        created.start();
+        server = created;
+        return this;
+    }
+
+    /**
+     * Stop accepting deliveries; queued events are still dispatched. A stopped receiver can't
+     * be restarted.
+     */
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        ioThreads.shutdown();
+        workers.shutdown();
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    /**
+     * Port the receiver is bound to, useful when started on port 0
+     */
+    public synchronized int getPort() {
+        if (server == null) {
+            throw new IllegalStateException("Webhook receiver is not running");
+        }
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Filter dropping redelivered events, or null if duplicates are passed to listeners
+     */
+    public DuplicateFilter getDuplicateFilter() {
+        return duplicates;
+    }
+
+    /**
+     * Events waiting for a worker
+     */
+    public int getQueueDepth() {
+        return workers.getQueue().size();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            exchange.sendResponseHeaders(receive(exchange), -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * @return the HTTP status to answer with
+     */
+    private int receive(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", "POST");
+            return 405;
+        }
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength != null && parseLong(contentLength) > maxBodyBytes) {
+            return 413;
+        }
+
+        Mac mac = null;
+        String signature = null;
+        if (secret != null) {
+            long timestamp = parseLong(exchange.getRequestHeaders().getFirst(WebhookSignature.TIMESTAMP_HEADER));
+            signature = exchange.getRequestHeaders().getFirst(WebhookSignature.SIGNATURE_HEADER);
+            if (signature == null || timestamp < 0
+                    || Math.abs(Instant.now().getEpochSecond() - timestamp) > toleranceSeconds) {
+                return 401;
+            }
+            mac = WebhookSignature.start(secret, timestamp);
+        }
+
+        WebhookEvent<?> event;
+        try (InputStream body = new BodyStream(exchange.getRequestBody(), maxBodyBytes, mac)) {
+            event = parse(body);
+            // Trailing bytes still count towards the signature
+            body.transferTo(OutputStream.nullOutputStream());
+        } catch (BodyTooLargeException e) {
+            return 413;
+        } catch (JsonProcessingException e) {
+            return 400;
+        }
+        if (mac != null && !WebhookSignature.matches(mac.doFinal(), signature)) {
+            return 401;
+        }
+        if (event == null) {
+            return 200;
+        }
+        if (duplicates != null && duplicates.isDuplicate(key(event))) {
+            // Already accepted; acknowledge so the sender stops retrying
+            return 200;
+        }
+
+        try {
+            workers.execute(() -> dispatch(event));
+        } catch (RejectedExecutionException e) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            return 503;
+        }
+        return 200;
+    }
+
+    /**
+     * Read the envelope, binding {@code data} to the model named by {@code type}
+     *
+     * @return the event, or null if its type isn't one of ours
+     * @throws JsonProcessingException if the body is malformed or an event of ours has no data
+     */
+    private WebhookEvent<?> parse(InputStream body) throws IOException {
+        try (JsonParser p = objectMapper.createParser(body)) {
+            p.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(p, "Webhook body must be a JSON object");
+            }
+            String id = null;
+            String type = null;
+            Instant createdAt = null;
+            Object data = null;
+            TokenBuffer early = null;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                p.nextToken();
+                switch (name) {
+                    case "id":
+                        id = p.getValueAsString();
+                        break;
+                    case "type":
+                        type = p.getValueAsString();
+                        break;
+                    case "created_at":
+                        createdAt = objectMapper.readValue(p, Instant.class);
+                        break;
+                    case "data":
+                        if (type != null) {
+                            Class<?> model = modelType(type);
+                            if (model != null) {
+                                data = objectMapper.readValue(p, model);
+                            } else {
+                                p.skipChildren();
+                            }
+                        } else {
+                            // "data" came before "type"; keep its tokens until we know the model
+                            early = new TokenBuffer(p);
+                            early.copyCurrentStructure(p);
+                        }
+                        break;
+                    default:
+                        p.skipChildren();
+                }
+            }
+            Class<?> model = modelType(type);
+            if (model == null) {
+                return null;
+            }
+            if (early != null) {
+                try (JsonParser buffered = early.asParser(objectMapper)) {
+                    buffered.nextToken();
+                    data = objectMapper.readValue(buffered, model);
+                }
+            }
+            if (data == null) {
+                throw new JsonParseException(p, "Webhook event " + type + " has no data");
+            }
+            return new WebhookEvent<>(id, type, createdAt, data);
+        }
+    }
+
+    private static Class<?> modelType(String type) {
+        if (type == null) {
+            return null;
+        }
+        if (type.startsWith("email.")) {
+            return Email.class;
+        }
+        if (type.startsWith("sms.")) {
+            return Sms.class;
+        }
+        if (type.startsWith("call.") || type.startsWith("voice.")) {
+            return VoiceCall.class;
+        }
+        return null;
+    }
+
+    /**
+     * Identity of a delivery for duplicate suppression: the event ID, or the object's ID and
+     * status for events without one
+     */
+    private static String key(WebhookEvent<?> event) {
+        if (event.getId() != null) {
+            return event.getId();
+        }
+        Object data = event.getData();
+        if (data instanceof Email email) {
+            return event.getType() + ':' + email.getId() + ':' + email.getStatus();
+        }
+        if (data instanceof Sms sms) {
+            return event.getType() + ':' + sms.getId() + ':' + sms.getStatus();
+        }
+        VoiceCall call = (VoiceCall) data;
+        return event.getType() + ':' + call.getId() + ':' + call.getStatus();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void dispatch(WebhookEvent<?> event) {
+        // Recorded only once the event is accepted, so a delivery refused with 503 can be retried
+        if (duplicates != null && !duplicates.add(key(event))) {
+            return;
+        }
+        Object data = event.getData();
+        if (data instanceof Email) {
+            notify(emailListeners, (WebhookEvent<Email>) event);
+        } else if (data instanceof Sms) {
+            notify(smsListeners, (WebhookEvent<Sms>) event);
+        } else if (data instanceof VoiceCall) {
+            notify(callListeners, (WebhookEvent<VoiceCall>) event);
+        }
+    }
+
+    private <T> void notify(List<WebhookListener<T>> listeners, WebhookEvent<T> event) {
+        for (WebhookListener<T> listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (Exception e) {
+                errorHandler.accept(event, e);
+            }
+        }
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static ObjectMapper defaultObjectMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new ModelModule())
+                .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class BodyTooLargeException extends IOException {
+        BodyTooLargeException() {
+            super("Webhook body too large");
+        }
+    }
+
+    /**
+     * Caps the body size and feeds every byte read to the signature MAC
+     */
+    private static final class BodyStream extends FilterInputStream {
+        private final long limit;
+        private final Mac mac;
+        private long count;
+
+        BodyStream(InputStream in, long limit, Mac mac) {
+            super(in);
+            this.limit = limit;
+            this.mac = mac;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                consumed(1);
+                if (mac != null) {
+                    mac.update((byte) b);
+                }
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                consumed(n);
+                if (mac != null) {
+                    mac.update(buffer, offset, n);
+                }
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes would escape the MAC
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        private void consumed(int n) throws BodyTooLargeException {
+            count += n;
+            if (count > limit) {
+                throw new BodyTooLargeException();
+            }
+        }
+    }
+
+    public static class Builder {
+        private String host = "0.0.0.0";
+        private int port = 8080;
+        private String path = "/webhooks/ekdsend";
+        private String secret;
+        private Duration tolerance = Duration.ofMinutes(5);
+        private long maxBodyBytes = 1024 * 1024;
+        private int workers = 4;
+        private int queueCapacity = 1000;
+        private ObjectMapper objectMapper;
+        private DuplicateFilter duplicates = DuplicateFilter.builder().build();
+        private final List<WebhookListener<Email>> emailListeners = new ArrayList<>();
+        private final List<WebhookListener<Sms>> smsListeners = new ArrayList<>();
+        private final List<WebhookListener<VoiceCall>> callListeners = new ArrayList<>();
+        private BiConsumer<WebhookEvent<?>, Exception> errorHandler = (event, error) -> {
+        };
+
+        private Builder() {
+        }
+
+        /**
+         * Address and port to listen on (default 0.0.0.0:8080; port 0 picks a free port)
+         */
+        public Builder listen(String host, int port) {
+            this.host = host;
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Path deliveries are posted to (default /webhooks/ekdsend)
+         */
+        public Builder path(String path) {
+            this.path = path;
+            return this;
+        }
+
+        /**
+         * Require deliveries signed with {@code secret}
+         */
+        public Builder secret(String secret) {
+            this.secret = secret;
+            return this;
+        }
+
+        /**
+         * Maximum age of a signed delivery's timestamp (default 5 minutes)
+         */
+        public Builder tolerance(Duration tolerance) {
+            this.tolerance = tolerance;
+            return this;
+        }
+
+        /**
+         * Largest body accepted (default 1 MiB)
+         */
+        public Builder maxBodyBytes(long maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+            return this;
+        }
+
+        /**
+         * Threads running listeners and events that may wait for them (defaults 4 and 1000)
+         */
+        public Builder workers(int workers, int queueCapacity) {
+            if (workers < 1 || queueCapacity < 1) {
+                throw new IllegalArgumentException("workers and queueCapacity must be at least 1");
+            }
+            this.workers = workers;
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Mapper used to parse deliveries, e.g. the client's
+         */
+        public Builder objectMapper(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            return this;
+        }
+
+        /**
+         * Filter used to drop redelivered events before they reach listeners; null passes
+         * every delivery through. Defaults to remembering 100,000 events for an hour.
+         */
+        public Builder deduplicate(DuplicateFilter duplicates) {
+            this.duplicates = duplicates;
+            return this;
+        }
+
+        public Builder onEmail(WebhookListener<Email> listener) {
+            emailListeners.add(listener);
+            return this;
+        }
+
+        public Builder onSms(WebhookListener<Sms> listener) {
+            smsListeners.add(listener);
+            return this;
+        }
+
+        public Builder onCall(WebhookListener<VoiceCall> listener) {
+            callListeners.add(listener);
+            return this;
+        }
+
+        /**
+         * Called when a listener throws
+         * <p>
+         * The default ignores the failure, so supply a handler that logs or records it.
+         * The event has already been acknowledged and won't be redelivered.
+         * </p>
+         */
+        public Builder onError(BiConsumer<WebhookEvent<?>, Exception> errorHandler) {
+            this.errorHandler = errorHandler;
+            return this;
+        }
+
+        public WebhookReceiver build() {
+            return new WebhookReceiver(this);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.ekddigital.ekdsend.webhook;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * Webhook signatures
+ * <p>
+ * A signed delivery carries the Unix time it was sent in {@value #TIMESTAMP_HEADER} and the
+ * lowercase hex HMAC-SHA256 of {@code "<timestamp>.<raw body>"}, keyed with the endpoint's
+ * secret, in {@value #SIGNATURE_HEADER}. These helpers are public so deliveries can also be
+ * verified outside {@link WebhookReceiver}, e.g. in a servlet.
+ * </p>
+ */
+public final class WebhookSignature {
+
+    public static final String SIGNATURE_HEADER = "X-EKDSend-Signature";
+    public static final String TIMESTAMP_HEADER = "X-EKDSend-Timestamp";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private WebhookSignature() {
+    }
+
+    /**
+     * @return the signature for {@code body} sent at {@code timestamp}
+     */
+    public static String sign(String secret, long timestamp, byte[] body) {
+        Mac mac = start(secret, timestamp);
+        return hex(mac.doFinal(body));
+    }
+
+    /**
+     * Check a signature in constant time
+     */
+    public static boolean verify(String secret, long timestamp, byte[] body, String signature) {
+        return signature != null && matches(start(secret, timestamp).doFinal(body), signature);
+    }
+
+    /**
+     * A MAC primed with the timestamp prefix; feed it the body and compare with {@link #matches}
+     */
+    static Mac start(String secret, long timestamp) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            mac.update((timestamp + ".").getBytes(StandardCharsets.US_ASCII));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    static boolean matches(byte[] digest, String signature) {
+        byte[] expected = hex(digest).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.trim().toLowerCase().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String hex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
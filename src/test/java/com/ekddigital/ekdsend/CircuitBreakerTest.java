@@ -0,0 +1,135 @@
+package com.ekddigital.ekdsend;
+
+import com.ekddigital.ekdsend.exception.CircuitOpenException;
+import com.ekddigital.ekdsend.exception.EKDSendException;
+import com.ekddigital.ekdsend.resilience.AdaptiveRateLimiter;
+import com.ekddigital.ekdsend.resilience.CircuitBreaker;
+import com.ekddigital.ekdsend.resilience.RetryPolicy;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private static final Duration OPEN = Duration.ofMillis(100);
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void failsFastWhileOpen() {
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        EKDSend client = client(CircuitBreaker.builder().window(2, 2).openDuration(OPEN).build()).build();
+
+        assertEquals(500, failure(client).getStatusCode());
+        assertEquals(503, failure(client).getStatusCode());
+
+        CircuitOpenException open = assertInstanceOf(CircuitOpenException.class, failure(client));
+        assertEquals("/emails", open.getEndpoint());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void healthyProbeClosesCircuit() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setHeader("Content-Type", "application/json").setBody("{\"id\":\"em_1\"}"));
+        CircuitBreaker breaker = CircuitBreaker.builder().window(1, 1).openDuration(OPEN).build();
+        EKDSend client = client(breaker).build();
+
+        failure(client);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState("/emails"));
+        Thread.sleep(OPEN.toMillis() * 2);
+
+        client.requestAsync("GET", "/emails/em_1", null, Map.class).get(10, TimeUnit.SECONDS);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState("/emails"));
+    }
+
+    @Test
+    void nestedResourcesHaveTheirOwnCircuit() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setHeader("Content-Type", "application/json").setBody("{\"id\":\"call_2\"}"));
+        CircuitBreaker breaker = CircuitBreaker.builder().window(1, 1).build();
+        EKDSend client = client(breaker).build();
+
+        assertThrows(ExecutionException.class, () -> client.requestAsync("GET", "/calls/call_1/recording", null,
+                Map.class).get(10, TimeUnit.SECONDS));
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState("/calls/{id}/recording"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState("/calls"));
+        client.requestAsync("GET", "/calls/call_2", null, Map.class).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void clientErrorsDoNotCount() {
+        server.enqueue(new MockResponse().setResponseCode(404));
+        CircuitBreaker breaker = CircuitBreaker.builder().window(1, 1).build();
+
+        failure(client(breaker).build());
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState("/emails"));
+    }
+
+    @Test
+    void returnsProbeWhenSchedulerRejectsRateLimitWait() throws Exception {
+        CircuitBreaker breaker = CircuitBreaker.builder()
+                .window(1, 1)
+                .halfOpenCalls(1)
+                .openDuration(OPEN)
+                .build();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.shutdown();
+        EKDSend client = client(breaker)
+                .scheduler(scheduler)
+                .rateLimiter(AdaptiveRateLimiter.builder().permitsPerSecond(1, 1).build())
+                .build();
+
+        server.enqueue(new MockResponse().setResponseCode(500));
+        assertEquals(500, failure(client).getStatusCode());
+        Thread.sleep(OPEN.toMillis() * 2);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState("/emails"));
+
+        // The probe must wait for a rate permit, and the wait can't be scheduled
+        assertEquals("SCHEDULER_REJECTED", failure(client).getErrorCode());
+
+        assertTrue(breaker.tryAcquire("/emails"), "probe permit leaked");
+    }
+
+    private EKDSend.Builder client(CircuitBreaker breaker) {
+        return EKDSend.builder("ek_test_key")
+                .baseUrl(server.url("/v1").toString())
+                .retryPolicy(RetryPolicy.none())
+                .circuitBreaker(breaker);
+    }
+
+    private static EKDSendException failure(EKDSend client) {
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> client.requestAsync("GET", "/emails/em_1", null, Map.class).get(10, TimeUnit.SECONDS));
+        return assertInstanceOf(EKDSendException.class, e.getCause());
+    }
+}
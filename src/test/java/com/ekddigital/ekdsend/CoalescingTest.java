@@ -0,0 +1,152 @@
+package com.ekddigital.ekdsend;
+
+import com.ekddigital.ekdsend.exception.EKDSendException;
+import com.ekddigital.ekdsend.resilience.RetryPolicy;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CoalescingTest {
+
+    private static final long DELAY_MILLIS = 300;
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void concurrentGetsShareOneCall() throws Exception {
+        server.enqueue(slow());
+        EKDSend client = client(true);
+
+        List<CompletableFuture<Map>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(get(client, "/emails/em_1"));
+        }
+
+        Map first = futures.get(0).get(10, TimeUnit.SECONDS);
+        for (CompletableFuture<Map> future : futures) {
+            assertSame(first, future.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void sharesFailures() {
+        server.enqueue(new MockResponse().setResponseCode(500).setHeadersDelay(DELAY_MILLIS, TimeUnit.MILLISECONDS));
+        EKDSend client = client(true);
+
+        CompletableFuture<Map> first = get(client, "/emails/em_1");
+        CompletableFuture<Map> second = get(client, "/emails/em_1");
+
+        for (CompletableFuture<Map> future : List.of(first, second)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+            assertEquals(500, assertInstanceOf(EKDSendException.class, e.getCause()).getStatusCode());
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void onlyIdenticalInFlightGetsAreShared() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(slow());
+        }
+        EKDSend client = client(true);
+
+        CompletableFuture<Map> email = get(client, "/emails/em_1");
+        CompletableFuture<Map> sms = get(client, "/sms/sms_1");
+        client.requestAsync("POST", "/emails", Map.of("to", "a@example.com"), Map.class).get(10, TimeUnit.SECONDS);
+        email.get(10, TimeUnit.SECONDS);
+        sms.get(10, TimeUnit.SECONDS);
+        // Completed GETs are not cached
+        get(client, "/emails/em_1").get(10, TimeUnit.SECONDS);
+
+        assertEquals(4, server.getRequestCount());
+    }
+
+    @Test
+    void cancellingOneCallerLeavesTheOthers() throws Exception {
+        server.enqueue(slow());
+        EKDSend client = client(true);
+
+        CompletableFuture<Map> cancelled = get(client, "/emails/em_1");
+        CompletableFuture<Map> kept = get(client, "/emails/em_1");
+        cancelled.cancel(true);
+
+        assertEquals("em_1", kept.get(10, TimeUnit.SECONDS).get("id"));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void cancellingEveryCallerStartsAFreshCall() throws Exception {
+        server.enqueue(slow());
+        server.enqueue(ok());
+        EKDSend client = client(true);
+
+        CompletableFuture<Map> first = get(client, "/emails/em_1");
+        CompletableFuture<Map> second = get(client, "/emails/em_1");
+        server.takeRequest(5, TimeUnit.SECONDS);
+        first.cancel(true);
+        second.cancel(true);
+
+        assertEquals("em_1", get(client, "/emails/em_1").get(10, TimeUnit.SECONDS).get("id"));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void disabledByDefault() throws Exception {
+        server.enqueue(slow());
+        server.enqueue(slow());
+        EKDSend client = client(false);
+
+        CompletableFuture<Map> first = get(client, "/emails/em_1");
+        CompletableFuture<Map> second = get(client, "/emails/em_1");
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, server.getRequestCount());
+    }
+
+    private EKDSend client(boolean coalesce) {
+        EKDSend.Builder builder = EKDSend.builder("ek_test_key")
+                .baseUrl(server.url("/v1").toString())
+                .retryPolicy(RetryPolicy.none());
+        return coalesce ? builder.coalesceGets(true).build() : builder.build();
+    }
+
+    private static MockResponse ok() {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody("{\"id\":\"em_1\"}");
+    }
+
+    private static MockResponse slow() {
+        return ok().setHeadersDelay(DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private static CompletableFuture<Map> get(EKDSend client, String path) {
+        return client.requestAsync("GET", path, null, Map.class);
+    }
+}
@@ -0,0 +1,103 @@
+package com.ekddigital.ekdsend;
+
+import com.ekddigital.ekdsend.exception.ThrottledException;
+import com.ekddigital.ekdsend.resilience.AdaptiveConcurrencyLimiter;
+import com.ekddigital.ekdsend.resilience.RetryPolicy;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConcurrencyLimiterTest {
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void queuesRequestsOverTheLimit() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            server.enqueue(ok().setHeadersDelay(200, TimeUnit.MILLISECONDS));
+        }
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder().initialLimit(2).build();
+        EKDSend client = client(limiter);
+
+        List<CompletableFuture<Map>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(get(client));
+        }
+        assertEquals(2, limiter.getInFlight("/emails"));
+        assertEquals(3, limiter.getQueueDepth("/emails"));
+
+        for (CompletableFuture<Map> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(0, limiter.getInFlight("/emails"));
+        assertEquals(5, server.getRequestCount());
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        server.enqueue(ok().setHeadersDelay(200, TimeUnit.MILLISECONDS));
+        EKDSend client = client(AdaptiveConcurrencyLimiter.builder().initialLimit(1).maxQueueSize(0).build());
+
+        CompletableFuture<Map> first = get(client);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> get(client).get(10, TimeUnit.SECONDS));
+
+        assertEquals("CONCURRENCY_LIMITED", assertInstanceOf(ThrottledException.class, e.getCause()).getErrorCode());
+        first.get(10, TimeUnit.SECONDS);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void serverOverloadCutsTheLimit() {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder()
+                .initialLimit(10)
+                .backoffRatio(0.5)
+                .build();
+
+        assertThrows(ExecutionException.class, () -> get(client(limiter)).get(10, TimeUnit.SECONDS));
+
+        assertEquals(5, limiter.getLimit("/emails"));
+        assertEquals(10, limiter.getLimit("/sms"));
+    }
+
+    private EKDSend client(AdaptiveConcurrencyLimiter limiter) {
+        return EKDSend.builder("ek_test_key")
+                .baseUrl(server.url("/v1").toString())
+                .retryPolicy(RetryPolicy.none())
+                .concurrencyLimiter(limiter)
+                .build();
+    }
+
+    private static MockResponse ok() {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody("{\"id\":\"em_1\"}");
+    }
+
+    private static CompletableFuture<Map> get(EKDSend client) {
+        return client.requestAsync("GET", "/emails/em_1", null, Map.class);
+    }
+}
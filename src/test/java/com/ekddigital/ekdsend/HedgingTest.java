@@ -0,0 +1,186 @@
+package com.ekddigital.ekdsend;
+
+import com.ekddigital.ekdsend.resilience.AdaptiveConcurrencyLimiter;
+import com.ekddigital.ekdsend.resilience.CircuitBreaker;
+import com.ekddigital.ekdsend.resilience.HedgingPolicy;
+import com.ekddigital.ekdsend.resilience.RetryBudget;
+import com.ekddigital.ekdsend.resilience.RetryPolicy;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgingTest {
+
+    private static final long SLOW_MILLIS = 1_000;
+
+    private MockWebServer server;
+    private SlowDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dispatcher = new SlowDispatcher();
+        server = new MockWebServer();
+        server.setDispatcher(dispatcher);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void hedgesSlowGetAndTakesFirstAnswer() throws Exception {
+        EKDSend client = client(RetryBudget.unlimited()).build();
+
+        get(client);
+        dispatcher.slow.add(2);
+
+        assertFast(client);
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    void waitsForLatencySamplesBeforeHedging() throws Exception {
+        dispatcher.slow.add(1);
+
+        assertSlow(client(RetryBudget.unlimited()).build());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void neverHedgesWrites() throws Exception {
+        EKDSend client = client(RetryBudget.unlimited()).build();
+        get(client);
+        dispatcher.slow.add(2);
+
+        long start = System.nanoTime();
+        client.requestAsync("POST", "/emails", Map.of("to", "a@example.com"), Map.class).get(10, TimeUnit.SECONDS);
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void budgetLimitsHedges() throws Exception {
+        // The reserve pays for one hedge and nothing refills it
+        EKDSend client = client(new RetryBudget(0, 1)).build();
+        get(client);
+        dispatcher.slow.addAll(Set.of(2, 4));
+
+        assertFast(client);
+        assertSlow(client);
+        assertEquals(4, server.getRequestCount());
+    }
+
+    @Test
+    void failedHedgeDoesNotFailRequest() throws Exception {
+        EKDSend client = client(RetryBudget.unlimited()).build();
+        get(client);
+        dispatcher.slow.add(2);
+        dispatcher.failing.add(3);
+
+        assertSlow(client);
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    void cancelledLoserLeavesLimiterAndBreakerAlone() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder()
+                .initialLimit(20)
+                .rttTolerance(1_000)
+                .build();
+        // A single failure would open the circuit
+        CircuitBreaker breaker = CircuitBreaker.builder()
+                .window(10, 1)
+                .failureRateThreshold(1)
+                .build();
+        EKDSend client = client(RetryBudget.unlimited())
+                .concurrencyLimiter(limiter)
+                .circuitBreaker(breaker)
+                .build();
+
+        get(client);
+        dispatcher.slow.add(2);
+
+        assertFast(client);
+        assertEquals(3, server.getRequestCount());
+        // The slow primary is cancelled once the hedge wins; wait for its permit to come back
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.getInFlight("/emails") > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        assertEquals(0, limiter.getInFlight("/emails"));
+        assertEquals(20, limiter.getLimit("/emails"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState("/emails"));
+    }
+
+    private EKDSend.Builder client(RetryBudget budget) {
+        return EKDSend.builder("ek_test_key")
+                .baseUrl(server.url("/v1").toString())
+                .retryPolicy(RetryPolicy.none())
+                .hedgingPolicy(HedgingPolicy.builder()
+                        .samples(1, 10)
+                        .minDelay(Duration.ofMillis(100))
+                        .budget(budget)
+                        .build());
+    }
+
+    private static void assertFast(EKDSend client) throws Exception {
+        long start = System.nanoTime();
+        assertEquals("em_1", get(client).get("id"));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS), "hedge did not win");
+    }
+
+    private static void assertSlow(EKDSend client) throws Exception {
+        long start = System.nanoTime();
+        assertEquals("em_1", get(client).get("id"));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS), "answered early");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> get(EKDSend client) throws Exception {
+        return client.requestAsync("GET", "/emails/em_1", null, Map.class).get(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Answers every request at once, except the numbered ones in {@link #slow}; the ones in
+     * {@link #failing} get a 500
+     */
+    private static final class SlowDispatcher extends Dispatcher {
+        final AtomicInteger count = new AtomicInteger();
+        final Set<Integer> slow = ConcurrentHashMap.newKeySet();
+        final Set<Integer> failing = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            int number = count.incrementAndGet();
+            if (failing.contains(number)) {
+                return new MockResponse().setResponseCode(500);
+            }
+            MockResponse response = new MockResponse()
+                    .setHeader("Content-Type", "application/json")
+                    .setBody("{\"id\":\"em_1\"}");
+            if (slow.contains(number)) {
+                response.setHeadersDelay(SLOW_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            return response;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.ekddigital.ekdsend;
+
+import com.ekddigital.ekdsend.exception.EKDSendException;
+import com.ekddigital.ekdsend.exception.ThrottledException;
+import com.ekddigital.ekdsend.resilience.AdaptiveRateLimiter;
+import com.ekddigital.ekdsend.resilience.RetryPolicy;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void rejectsOverLimitWithoutCallingServer() throws Exception {
+        server.enqueue(ok());
+        EKDSend client = client(AdaptiveRateLimiter.builder()
+                .permitsPerSecond(1, 1)
+                .mode(AdaptiveRateLimiter.Mode.REJECT)
+                .build());
+
+        get(client, "/emails/em_1").get(10, TimeUnit.SECONDS);
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> get(client, "/emails/em_1").get(10, TimeUnit.SECONDS));
+
+        ThrottledException throttled = assertInstanceOf(ThrottledException.class, e.getCause());
+        assertEquals("CLIENT_RATE_LIMITED", throttled.getErrorCode());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void queuedRequestsAreSpacedAtTheRate() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(ok());
+        }
+        EKDSend client = client(AdaptiveRateLimiter.builder().permitsPerSecond(10, 1).build());
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Map>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(get(client, "/emails/em_" + i));
+        }
+        for (CompletableFuture<Map> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+
+        // One permit up front, then one every 100ms
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(290));
+        assertEquals(4, server.getRequestCount());
+    }
+
+    @Test
+    void serverRateLimitSlowsClient() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(429));
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.builder().permitsPerSecond(20, 5).build();
+        EKDSend client = client(limiter);
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> get(client, "/sms/sms_1").get(10, TimeUnit.SECONDS));
+
+        assertEquals(429, ((EKDSendException) e.getCause()).getStatusCode());
+        assertEquals(10, limiter.getRate("/sms"), 1);
+        assertEquals(20, limiter.getRate("/emails"), 0.01);
+    }
+
+    private EKDSend client(AdaptiveRateLimiter limiter) {
+        return EKDSend.builder("ek_test_key")
+                .baseUrl(server.url("/v1").toString())
+                .retryPolicy(RetryPolicy.none())
+                .rateLimiter(limiter)
+                .build();
+    }
+
+    private static MockResponse ok() {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody("{\"id\":\"em_1\"}");
+    }
+
+    private static CompletableFuture<Map> get(EKDSend client, String path) {
+        return client.requestAsync("GET", path, null, Map.class);
+    }
+}
@@ -0,0 +1,135 @@
+package com.ekddigital.ekdsend;
+
+import com.ekddigital.ekdsend.exception.EKDSendException;
+import com.ekddigital.ekdsend.exception.ValidationException;
+import com.ekddigital.ekdsend.resilience.DecorrelatedJitterRetryPolicy;
+import com.ekddigital.ekdsend.resilience.RetryBudget;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryTest {
+
+    private static final long BASE_MILLIS = 100;
+
+    private MockWebServer server;
+    private ScheduledThreadPoolExecutor scheduler;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        scheduler = new ScheduledThreadPoolExecutor(1);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        scheduler.shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    void retriesServerErrorsUntilSuccess() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(ok());
+
+        assertEquals("em_1", get(client().build()).get("id"));
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        server.enqueue(new MockResponse().setResponseCode(400)
+                .setBody("{\"error\":{\"message\":\"invalid\",\"code\":\"VALIDATION_ERROR\"}}"));
+
+        assertInstanceOf(ValidationException.class, failure(client().build()));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void givesUpAfterMaxRetries() {
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+        }
+
+        assertEquals(500, failure(client().build()).getStatusCode());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    void waitsForRetryAfter() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "1"));
+        server.enqueue(ok());
+
+        long start = System.nanoTime();
+        get(client().build());
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.SECONDS.toNanos(1), "retried before Retry-After");
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void stopsRetryingWhenBudgetIsSpent() {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+        EKDSend client = client().retryBudget(new RetryBudget(0, 1)).build();
+
+        // The reserve pays for one retry; nothing refills it
+        failure(client);
+        assertEquals(2, server.getRequestCount());
+        failure(client);
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    void schedulesWaitInsteadOfBlocking() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(ok());
+
+        CompletableFuture<Map> future = client().build().requestAsync("GET", "/emails/em_1", null, Map.class);
+
+        assertFalse(future.isDone());
+        assertEquals("em_1", future.get(10, TimeUnit.SECONDS).get("id"));
+        assertEquals(1, scheduler.getTaskCount());
+    }
+
+    private EKDSend.Builder client() {
+        return EKDSend.builder("ek_test_key")
+                .baseUrl(server.url("/v1").toString())
+                .scheduler(scheduler)
+                .retryPolicy(new DecorrelatedJitterRetryPolicy(2, Duration.ofMillis(BASE_MILLIS),
+                        Duration.ofMillis(3 * BASE_MILLIS), Duration.ofSeconds(5)));
+    }
+
+    private static MockResponse ok() {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody("{\"id\":\"em_1\"}");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> get(EKDSend client) throws Exception {
+        return client.requestAsync("GET", "/emails/em_1", null, Map.class).get(10, TimeUnit.SECONDS);
+    }
+
+    private static EKDSendException failure(EKDSend client) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> get(client));
+        return assertInstanceOf(EKDSendException.class, e.getCause());
+    }
+}
@@ -0,0 +1,96 @@
+package com.ekddigital.ekdsend.api;
+
+import com.ekddigital.ekdsend.exception.EKDSendException;
+import com.ekddigital.ekdsend.exception.UncheckedEKDSendException;
+import com.ekddigital.ekdsend.model.PaginatedResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelPagerTest {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int TOTAL = 95;
+
+    /** Pages by offset; the first page is always answered */
+    private final Map<Integer, CompletableFuture<PaginatedResponse<Integer>>> pages = new ConcurrentHashMap<>();
+
+    @Test
+    void streamsEveryItemInOrder() throws EKDSendException {
+        List<Integer> items = ParallelPager.stream(this::answer, 0, 3, true).collect(Collectors.toList());
+
+        assertEquals(IntStream.range(0, TOTAL).boxed().collect(Collectors.toList()), items);
+    }
+
+    @Test
+    void streamsEveryItemUnordered() throws EKDSendException {
+        List<Integer> items = ParallelPager.stream(this::answer, 0, 3, false).sorted().collect(Collectors.toList());
+
+        assertEquals(IntStream.range(0, TOTAL).boxed().collect(Collectors.toList()), items);
+    }
+
+    @Test
+    void closeReleasesOrderedConsumer() throws Exception {
+        assertReleasedByClose(ParallelPager.stream(this::hang, 0, 3, true));
+    }
+
+    @Test
+    void closeReleasesUnorderedConsumers() throws Exception {
+        assertReleasedByClose(ParallelPager.stream(this::hang, 0, 3, false));
+    }
+
+    @Test
+    void failedPageStopsListing() throws EKDSendException {
+        Stream<Integer> stream = ParallelPager.stream(offset -> offset == 20
+                ? CompletableFuture.failedFuture(new EKDSendException("boom", 500, "SERVER_ERROR", null))
+                : answer(offset), 0, 2, true);
+
+        UncheckedEKDSendException e = assertThrows(UncheckedEKDSendException.class, () -> stream.forEach(item -> {
+        }));
+        assertEquals("SERVER_ERROR", e.getCause().getErrorCode());
+    }
+
+    private void assertReleasedByClose(Stream<Integer> stream) throws Exception {
+        CompletableFuture<Long> consumer = CompletableFuture.supplyAsync(stream::count);
+        // Let the consumer drain the first page and park on the ones that never answer
+        Thread.sleep(200);
+        stream.close();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> consumer.get(5, TimeUnit.SECONDS));
+        UncheckedEKDSendException unchecked = assertInstanceOf(UncheckedEKDSendException.class, e.getCause());
+        assertEquals("CANCELLED", unchecked.getCause().getErrorCode());
+    }
+
+    private CompletableFuture<PaginatedResponse<Integer>> answer(int offset) {
+        return CompletableFuture.completedFuture(page(offset));
+    }
+
+    /**
+     * Answers the first page only; every later page stays pending
+     */
+    private CompletableFuture<PaginatedResponse<Integer>> hang(int offset) {
+        return pages.computeIfAbsent(offset, key -> key == 0 ? answer(0) : new CompletableFuture<>());
+    }
+
+    private static PaginatedResponse<Integer> page(int offset) {
+        PaginatedResponse<Integer> page = new PaginatedResponse<>();
+        page.setOffset(offset);
+        page.setLimit(PAGE_SIZE);
+        page.setTotal(TOTAL);
+        page.setData(IntStream.range(offset, Math.min(TOTAL, offset + PAGE_SIZE)).boxed()
+                .collect(Collectors.toList()));
+        return page;
+    }
+}
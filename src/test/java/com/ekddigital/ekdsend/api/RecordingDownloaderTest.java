@@ -0,0 +1,186 @@
+package com.ekddigital.ekdsend.api;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class RecordingDownloaderTest {
+
+    private static final int CHUNK = 1024;
+    private static final byte[] FILE = randomBytes(5 * CHUNK - 100);
+
+    @TempDir
+    Path dir;
+
+    private MockWebServer server;
+    private ScheduledExecutorService scheduler;
+    private RangeDispatcher dispatcher;
+    private RecordingDownloader downloader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dispatcher = new RangeDispatcher();
+        server = new MockWebServer();
+        server.setDispatcher(dispatcher);
+        server.start();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        downloader = new RecordingDownloader(new OkHttpClient(), scheduler, CHUNK, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        scheduler.shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    void streamsWholeFileWhenServerIgnoresRanges() throws Exception {
+        dispatcher.ranges = false;
+
+        Path target = download();
+
+        assertArrayEquals(FILE, Files.readAllBytes(target));
+        assertEquals(List.of("0-1023"), dispatcher.requested);
+        assertFalse(Files.exists(part(target)));
+        assertFalse(Files.exists(state(target)));
+    }
+
+    @Test
+    void fetchesEveryChunkWithRangeRequests() throws Exception {
+        Path target = download();
+
+        assertArrayEquals(FILE, Files.readAllBytes(target));
+        assertEquals(Set.of("0-1023", "1024-2047", "2048-3071", "3072-4095", "4096-5019"),
+                Set.copyOf(dispatcher.requested));
+        assertEquals(5, dispatcher.requested.size());
+        assertFalse(Files.exists(state(target)));
+    }
+
+    @Test
+    void resumesFromPartialState() throws Exception {
+        Path target = dir.resolve("call.mp3");
+        byte[] partial = FILE.clone();
+        for (int i = 3 * CHUNK; i < partial.length; i++) {
+            partial[i] = 0;
+        }
+        Files.write(part(target), partial);
+        Files.writeString(state(target), FILE.length + " \"v1\"\n0\n1\n2\n", StandardCharsets.US_ASCII);
+
+        download();
+
+        assertArrayEquals(FILE, Files.readAllBytes(target));
+        // The probe always asks for the first chunk; only the unfinished chunks follow it
+        assertEquals(Set.of("0-1023", "3072-4095", "4096-5019"), Set.copyOf(dispatcher.requested));
+        assertEquals(3, dispatcher.requested.size());
+    }
+
+    @Test
+    void restartsWhenEtagChanged() throws Exception {
+        Path target = dir.resolve("call.mp3");
+        Files.write(part(target), new byte[FILE.length]);
+        Files.writeString(state(target), FILE.length + " \"v0\"\n0\n1\n2\n3\n", StandardCharsets.US_ASCII);
+
+        download();
+
+        assertArrayEquals(FILE, Files.readAllBytes(target));
+        assertEquals(5, dispatcher.requested.size());
+    }
+
+    @Test
+    void restartsWhenServerSendsNoValidator() throws Exception {
+        dispatcher.etag = null;
+        Path target = dir.resolve("call.mp3");
+        Files.write(part(target), new byte[FILE.length]);
+        Files.writeString(state(target), FILE.length + " -\n0\n1\n2\n3\n", StandardCharsets.US_ASCII);
+
+        download();
+
+        assertArrayEquals(FILE, Files.readAllBytes(target));
+        assertEquals(5, dispatcher.requested.size());
+        assertFalse(Files.exists(state(target)));
+    }
+
+    @Test
+    void retriesTruncatedChunk() throws Exception {
+        dispatcher.truncateOnce.add(2 * CHUNK);
+
+        Path target = download();
+
+        assertArrayEquals(FILE, Files.readAllBytes(target));
+        assertEquals(2, dispatcher.requested.stream().filter("2048-3071"::equals).count());
+        assertEquals(6, dispatcher.requested.size());
+    }
+
+    private Path download() throws Exception {
+        Path target = dir.resolve("call.mp3");
+        return downloader.download(server.url("/recordings/call.mp3").toString(), target).get(10, TimeUnit.SECONDS);
+    }
+
+    private static Path part(Path target) {
+        return target.resolveSibling(target.getFileName() + ".part");
+    }
+
+    private static Path state(Path target) {
+        return target.resolveSibling(target.getFileName() + ".part.state");
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * Serves {@link #FILE}, honouring {@code Range} headers unless told otherwise
+     */
+    private static final class RangeDispatcher extends Dispatcher {
+        final List<String> requested = new CopyOnWriteArrayList<>();
+        final Set<Integer> truncateOnce = ConcurrentHashMap.newKeySet();
+        volatile boolean ranges = true;
+        volatile String etag = "\"v1\"";
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            String range = request.getHeader("Range");
+            int start = Integer.parseInt(range.substring("bytes=".length(), range.indexOf('-')));
+            int end = Math.min(FILE.length - 1, Integer.parseInt(range.substring(range.indexOf('-') + 1)));
+            requested.add(start + "-" + end);
+
+            MockResponse response = new MockResponse();
+            if (etag != null) {
+                response.setHeader("ETag", etag);
+            }
+            if (!ranges) {
+                return response.setBody(new Buffer().write(FILE));
+            }
+            int sent = truncateOnce.remove(start) ? (end - start + 1) / 2 : end - start + 1;
+            return response.setResponseCode(206)
+                    .setHeader("Content-Range", "bytes " + start + "-" + end + "/" + FILE.length)
+                    .setBody(new Buffer().write(FILE, start, sent));
+        }
+    }
+}
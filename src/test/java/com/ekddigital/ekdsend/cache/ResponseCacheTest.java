@@ -0,0 +1,43 @@
+package com.ekddigital.ekdsend.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCacheTest {
+
+    private final ResponseCache cache = ResponseCache.builder().build();
+
+    @Test
+    void storesFetchWhenNothingWasInvalidated() {
+        long generation = cache.generation("/emails/em_1");
+
+        assertTrue(cache.put("/emails/em_1", "fresh", true, generation));
+        assertEquals("fresh", cache.get("/emails/em_1"));
+    }
+
+    @Test
+    void dropsFetchThatRacedWithInvalidation() {
+        cache.put("/emails/em_1", "old", false);
+        long generation = cache.generation("/emails/em_1");
+
+        // A mutation completes while the GET is in flight
+        cache.invalidate("/emails/em_1");
+
+        assertFalse(cache.put("/emails/em_1", "stale", true, generation));
+        assertNull(cache.get("/emails/em_1"));
+    }
+
+    @Test
+    void invalidateAllDropsEveryRacingFetch() {
+        long generation = cache.generation("/sms/sms_1");
+
+        cache.invalidateAll();
+
+        assertFalse(cache.put("/sms/sms_1", "stale", true, generation));
+        assertEquals(0, cache.size());
+    }
+}
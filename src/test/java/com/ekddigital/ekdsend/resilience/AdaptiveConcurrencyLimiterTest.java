@@ -0,0 +1,137 @@
+package com.ekddigital.ekdsend.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final String KEY = "/emails";
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AtomicInteger started = new AtomicInteger();
+
+    @Test
+    void queuesOverLimitAndRejectsWhenQueueIsFull() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2).maxQueueSize(1).build();
+
+        assertTrue(limiter.acquire(KEY, started::incrementAndGet));
+        assertTrue(limiter.acquire(KEY, started::incrementAndGet));
+        assertTrue(limiter.acquire(KEY, started::incrementAndGet));
+        assertFalse(limiter.acquire(KEY, started::incrementAndGet));
+        assertEquals(2, started.get());
+        assertEquals(2, limiter.getInFlight(KEY));
+        assertEquals(1, limiter.getQueueDepth(KEY));
+
+        // A released slot goes to the queued task
+        limiter.release(KEY, RTT, false);
+        assertEquals(3, started.get());
+        assertEquals(2, limiter.getInFlight(KEY));
+        assertEquals(0, limiter.getQueueDepth(KEY));
+    }
+
+    @Test
+    void congestionCutsLimitAtMostOncePerRtt() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10).backoffRatio(0.5).build();
+        long slowRtt = TimeUnit.SECONDS.toNanos(1);
+
+        hold(limiter, 2);
+        limiter.release(KEY, slowRtt, true);
+        assertEquals(5, limiter.getLimit(KEY));
+
+        // The same burst of failures only counts once
+        limiter.release(KEY, slowRtt, true);
+        assertEquals(5, limiter.getLimit(KEY));
+    }
+
+    @Test
+    void slowResponseCountsAsCongestion() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10).backoffRatio(0.5).rttTolerance(2).build();
+
+        hold(limiter, 2);
+        limiter.release(KEY, RTT, false);
+        assertEquals(10, limiter.getLimit(KEY));
+        limiter.release(KEY, RTT * 10, false);
+        assertEquals(5, limiter.getLimit(KEY));
+    }
+
+    @Test
+    void growsByAboutOnePerLimitResponsesWhileBusy() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4).build();
+
+        // Each response adds 1 / limit: 4.25, 4.49, 4.71, 4.92, 5.12
+        hold(limiter, 4);
+        for (int i = 0; i < 5; i++) {
+            limiter.release(KEY, RTT, false);
+            hold(limiter, 1);
+        }
+
+        assertEquals(5, limiter.getLimit(KEY));
+    }
+
+    @Test
+    void doesNotGrowWhileMostlyIdle() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4).build();
+
+        for (int i = 0; i < 100; i++) {
+            hold(limiter, 1);
+            limiter.release(KEY, RTT, false);
+        }
+
+        assertEquals(4, limiter.getLimit(KEY));
+    }
+
+    @Test
+    void staysWithinLimitRange() {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder()
+                .initialLimit(3)
+                .limitRange(2, 3)
+                .backoffRatio(0.1)
+                .build();
+
+        hold(limiter, 3);
+        for (int i = 0; i < 50; i++) {
+            limiter.release(KEY, RTT, false);
+            hold(limiter, 1);
+        }
+        assertEquals(3, limiter.getLimit(KEY));
+
+        limiter.release(KEY, RTT, true);
+        assertEquals(2, limiter.getLimit(KEY));
+    }
+
+    @Test
+    void unsentRequestsLeaveLimitAlone() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10).build();
+
+        hold(limiter, 1);
+        limiter.release(KEY, -1, true);
+
+        assertEquals(10, limiter.getLimit(KEY));
+        assertEquals(0, limiter.getInFlight(KEY));
+    }
+
+    @Test
+    void endpointsHaveSeparateLimits() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1).maxQueueSize(0).build();
+
+        assertTrue(limiter.acquire("/emails", started::incrementAndGet));
+        assertFalse(limiter.acquire("/emails", started::incrementAndGet));
+        assertTrue(limiter.acquire("/sms", started::incrementAndGet));
+    }
+
+    private static AdaptiveConcurrencyLimiter.Builder limiter(int initialLimit) {
+        return AdaptiveConcurrencyLimiter.builder().initialLimit(initialLimit);
+    }
+
+    private void hold(AdaptiveConcurrencyLimiter limiter, int requests) {
+        for (int i = 0; i < requests; i++) {
+            assertTrue(limiter.acquire(KEY, started::incrementAndGet));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.ekddigital.ekdsend.resilience;
+
+import okhttp3.Headers;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveRateLimiterTest {
+
+    private static final Headers NONE = Headers.of();
+
+    @Test
+    void spendsBurstThenSpacesRequests() {
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.builder().permitsPerSecond(10, 2).build();
+
+        assertEquals(0, limiter.acquire("/emails"));
+        assertEquals(0, limiter.acquire("/emails"));
+        long first = limiter.acquire("/emails");
+        long second = limiter.acquire("/emails");
+
+        assertBetween(first, 50, 100);
+        // Waiters borrow ahead, so the next one queues a full interval later
+        assertBetween(second - first, 95, 105);
+    }
+
+    @Test
+    void rejectModeFailsInsteadOfWaiting() {
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.builder()
+                .permitsPerSecond(1, 1)
+                .mode(AdaptiveRateLimiter.Mode.REJECT)
+                .build();
+
+        assertEquals(0, limiter.acquire("/emails"));
+        assertEquals(AdaptiveRateLimiter.REJECTED, limiter.acquire("/emails"));
+    }
+
+    @Test
+    void rejectsWaitsLongerThanMaxWait() {
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.builder()
+                .permitsPerSecond(1, 1)
+                .maxWait(Duration.ofMillis(500))
+                .build();
+
+        assertEquals(0, limiter.acquire("/emails"));
+        assertEquals(AdaptiveRateLimiter.REJECTED, limiter.acquire("/emails"));
+    }
+
+    @Test
+    void endpointsHaveSeparateBuckets() {
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.builder()
+                .permitsPerSecond(10, 1)
+                .limit("/sms", 1, 1)
+                .mode(AdaptiveRateLimiter.Mode.REJECT)
+                .build();
+
+        assertEquals(0, limiter.acquire("/sms"));
+        assertEquals(AdaptiveRateLimiter.REJECTED, limiter.acquire("/sms"));
+        assertEquals(0, limiter.acquire("/emails"));
+        assertEquals(0, limiter.acquire("/calls"));
+        assertEquals(1, limiter.getRate("/sms"), 0.01);
+        assertEquals(10, limiter.getRate("/emails"), 0.01);
+    }
+
+    @Test
+    void tooManyRequestsHalvesRateThenRecovers() throws InterruptedException {
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.builder()
+                .permitsPerSecond(100, 10)
+                .recoveryPeriod(Duration.ofMillis(500))
+                .build();
+
+        limiter.onResponse("/emails", 429, NONE, -1);
+        assertEquals(50, limiter.getRate("/emails"), 5);
+        limiter.onResponse("/emails", 429, NONE, -1);
+        assertEquals(25, limiter.getRate("/emails"), 5);
+
+        Thread.sleep(600);
+        assertEquals(100, limiter.getRate("/emails"), 0.01);
+    }
+
+    @Test
+    void retryAfterPausesBucket() {
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.builder().permitsPerSecond(100, 10).build();
+
+        limiter.onResponse("/emails", 429, NONE, 500);
+
+        assertBetween(limiter.acquire("/emails"), 450, 520);
+    }
+
+    @Test
+    void followsRateLimitHeaders() {
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.builder().permitsPerSecond(100, 10).build();
+
+        // 50 requests left in the next 2 seconds
+        limiter.onResponse("/emails", 200, Headers.of("X-RateLimit-Remaining", "50", "X-RateLimit-Reset", "2"), -1);
+        assertEquals(25, limiter.getRate("/emails"), 1);
+        // Never below 5% of the configured rate
+        limiter.onResponse("/emails", 200, Headers.of("X-RateLimit-Remaining", "1", "X-RateLimit-Reset", "10"), -1);
+        assertEquals(5, limiter.getRate("/emails"), 1);
+
+        // Nothing left: wait for the window to reset, then for one token
+        limiter.onResponse("/sms", 200, Headers.of("X-RateLimit-Remaining", "0", "X-RateLimit-Reset", "2"), -1);
+        assertBetween(limiter.acquire("/sms"), 1_900, 2_020);
+    }
+
+    private static void assertBetween(long nanos, long minMillis, long maxMillis) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        assertTrue(millis >= minMillis && millis <= maxMillis,
+                millis + "ms not in [" + minMillis + ", " + maxMillis + "]");
+    }
+}
@@ -0,0 +1,142 @@
+package com.ekddigital.ekdsend.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private static final String KEY = "/emails";
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+    private static final Duration OPEN = Duration.ofMillis(100);
+
+    @Test
+    void waitsForMinimumCallsBeforeOpening() {
+        CircuitBreaker breaker = breaker(10, 4).build();
+
+        record(breaker, true, true, true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(KEY));
+        record(breaker, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(KEY));
+        assertFalse(breaker.tryAcquire(KEY));
+    }
+
+    @Test
+    void opensAtFailureRateThreshold() {
+        CircuitBreaker breaker = breaker(4, 4).failureRateThreshold(50).build();
+
+        record(breaker, true, false, false);
+        record(breaker, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(KEY));
+
+        // The window slides: the oldest failure drops out as a new one comes in
+        record(breaker, true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(KEY));
+        record(breaker, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(KEY));
+    }
+
+    @Test
+    void opensAtSlowCallRateThreshold() {
+        CircuitBreaker breaker = breaker(4, 4).slowCallRateThreshold(50, Duration.ofSeconds(1)).build();
+
+        breaker.onResult(KEY, FAST, false);
+        breaker.onResult(KEY, FAST, false);
+        breaker.onResult(KEY, SLOW, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(KEY));
+        breaker.onResult(KEY, SLOW, false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(KEY));
+    }
+
+    @Test
+    void halfOpenLetsLimitedProbesThrough() throws InterruptedException {
+        CircuitBreaker breaker = open(breaker(2, 2).halfOpenCalls(2).build());
+
+        Thread.sleep(OPEN.toMillis() * 2);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(KEY));
+        assertTrue(breaker.tryAcquire(KEY));
+        assertTrue(breaker.tryAcquire(KEY));
+        assertFalse(breaker.tryAcquire(KEY));
+
+        // A probe that was never sent gives its slot back
+        breaker.onCancel(KEY);
+        assertTrue(breaker.tryAcquire(KEY));
+    }
+
+    @Test
+    void healthyProbesCloseCircuit() throws InterruptedException {
+        CircuitBreaker breaker = open(breaker(2, 2).halfOpenCalls(2).build());
+        Thread.sleep(OPEN.toMillis() * 2);
+
+        probe(breaker, false);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(KEY));
+        probe(breaker, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(KEY));
+    }
+
+    @Test
+    void failedProbesReopenCircuit() throws InterruptedException {
+        CircuitBreaker breaker = open(breaker(2, 2).halfOpenCalls(2).build());
+        Thread.sleep(OPEN.toMillis() * 2);
+
+        probe(breaker, true);
+        probe(breaker, false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(KEY));
+        assertFalse(breaker.tryAcquire(KEY));
+    }
+
+    @Test
+    void endpointsHaveSeparateCircuits() {
+        CircuitBreaker breaker = open(breaker(2, 2).build());
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(KEY));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState("/sms"));
+        assertTrue(breaker.tryAcquire("/sms"));
+    }
+
+    @Test
+    void rejectsMoreProbesThanTheWindowHolds() {
+        assertThrows(IllegalArgumentException.class, () -> breaker(2, 2).halfOpenCalls(3).build());
+    }
+
+    @Test
+    void defaultProbeCountShrinksToSmallWindow() throws InterruptedException {
+        CircuitBreaker breaker = open(breaker(2, 2).build());
+        Thread.sleep(OPEN.toMillis() * 2);
+
+        assertTrue(breaker.tryAcquire(KEY));
+        assertTrue(breaker.tryAcquire(KEY));
+        assertFalse(breaker.tryAcquire(KEY));
+    }
+
+    private static CircuitBreaker.Builder breaker(int windowSize, int minimumCalls) {
+        return CircuitBreaker.builder().window(windowSize, minimumCalls).openDuration(OPEN);
+    }
+
+    private static CircuitBreaker open(CircuitBreaker breaker) {
+        for (int i = 0; i < 2; i++) {
+            record(breaker, true);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(KEY));
+        return breaker;
+    }
+
+    private static void record(CircuitBreaker breaker, boolean... failures) {
+        for (boolean failed : failures) {
+            assertTrue(breaker.tryAcquire(KEY));
+            breaker.onResult(KEY, FAST, failed);
+        }
+    }
+
+    private static void probe(CircuitBreaker breaker, boolean failed) {
+        assertTrue(breaker.tryAcquire(KEY));
+        breaker.onResult(KEY, FAST, failed);
+    }
+}
@@ -0,0 +1,98 @@
+package com.ekddigital.ekdsend.resilience;
+
+import com.ekddigital.ekdsend.exception.AuthenticationException;
+import com.ekddigital.ekdsend.exception.EKDSendException;
+import com.ekddigital.ekdsend.exception.RateLimitException;
+import com.ekddigital.ekdsend.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DecorrelatedJitterRetryPolicyTest {
+
+    private static final long BASE = 100;
+    private static final long MAX = 2_000;
+
+    private final DecorrelatedJitterRetryPolicy policy = new DecorrelatedJitterRetryPolicy(3,
+            Duration.ofMillis(BASE), Duration.ofMillis(MAX), Duration.ofSeconds(10));
+    private final EKDSendException serverError = new EKDSendException("down", 503, "UNAVAILABLE", null);
+
+    @Test
+    void delaysStayWithinDecorrelatedBounds() {
+        long previous = 0;
+        for (int i = 0; i < 1_000; i++) {
+            long delay = policy.nextDelayMillis(1, previous, serverError, -1);
+            long upper = Math.min(MAX, Math.max(BASE, previous) * 3);
+            assertTrue(delay >= BASE && delay <= upper, delay + " outside [" + BASE + ", " + upper + "]");
+            previous = delay;
+        }
+    }
+
+    @Test
+    void delaysAreJittered() {
+        long first = policy.nextDelayMillis(1, 1_000, serverError, -1);
+        for (int i = 0; i < 100; i++) {
+            if (policy.nextDelayMillis(1, 1_000, serverError, -1) != first) {
+                return;
+            }
+        }
+        throw new AssertionError("100 identical delays");
+    }
+
+    @Test
+    void waitsOutServerHintPlusJitter() {
+        RateLimitException limited = new RateLimitException("slow down", 2, null);
+        for (int i = 0; i < 100; i++) {
+            long delay = policy.nextDelayMillis(1, 0, limited, 2_000);
+            assertTrue(delay >= 2_000 && delay <= 2_000 + BASE, "delay " + delay);
+        }
+    }
+
+    @Test
+    void stopsWhenHintExceedsMaxRetryAfter() {
+        assertEquals(RetryPolicy.STOP, policy.nextDelayMillis(1, 0, serverError, 10_001));
+    }
+
+    @Test
+    void stopsAfterMaxRetries() {
+        assertTrue(policy.nextDelayMillis(3, BASE, serverError, -1) >= 0);
+        assertEquals(RetryPolicy.STOP, policy.nextDelayMillis(4, BASE, serverError, -1));
+    }
+
+    @Test
+    void retriesOnlyTransientFailures() {
+        assertTrue(policy.nextDelayMillis(1, 0, new EKDSendException("reset", 0, "CONNECTION_ERROR", null), -1) >= 0);
+        assertTrue(policy.nextDelayMillis(1, 0, new RateLimitException("slow down", 1, null), -1) >= 0);
+
+        assertEquals(RetryPolicy.STOP, policy.nextDelayMillis(1, 0,
+                new EKDSendException("bad body", 0, "SERIALIZATION_ERROR", null), -1));
+        assertEquals(RetryPolicy.STOP, policy.nextDelayMillis(1, 0,
+                new ValidationException("invalid", Map.of(), null), -1));
+        assertEquals(RetryPolicy.STOP, policy.nextDelayMillis(1, 0,
+                new AuthenticationException("bad key", null), -1));
+        assertEquals(RetryPolicy.STOP, policy.nextDelayMillis(1, 0,
+                new EKDSendException("missing", 404, "NOT_FOUND", null), -1));
+    }
+
+    @Test
+    void budgetAllowsRatioOfRetriesPerRequest() {
+        RetryBudget budget = new RetryBudget(0.5, 1);
+
+        assertTrue(budget.tryAcquireRetry());
+        assertFalse(budget.tryAcquireRetry());
+        budget.onRequest();
+        assertFalse(budget.tryAcquireRetry());
+        budget.onRequest();
+        assertTrue(budget.tryAcquireRetry());
+        // Deposits never exceed the reserve
+        for (int i = 0; i < 10; i++) {
+            budget.onRequest();
+        }
+        assertEquals(1, budget.available());
+    }
+}
@@ -0,0 +1,95 @@
+package com.ekddigital.ekdsend.webhook;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DuplicateFilterTest {
+
+    private static final Duration WINDOW = Duration.ofMillis(200);
+    private static final int SLICES = 4;
+    private static final long SLICE_NANOS = WINDOW.toNanos() / SLICES;
+
+    private final DuplicateFilter filter = DuplicateFilter.builder()
+            .window(WINDOW)
+            .slices(SLICES)
+            .expectedKeys(1_000)
+            .build();
+
+    @Test
+    void rejectsRepeatedKey() {
+        assertTrue(filter.add("evt_1"));
+        assertFalse(filter.add("evt_1"));
+        assertTrue(filter.add("evt_2"));
+        assertEquals(1, filter.getDuplicateCount());
+    }
+
+    @Test
+    void remembersKeyForWholeWindow() throws InterruptedException {
+        long before = System.nanoTime();
+        filter.add("evt_1");
+
+        // Sleeps can overshoot, so only assert while the window has really not passed yet
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(WINDOW.toMillis() / 5);
+            boolean seen = filter.mightContain("evt_1");
+            if (System.nanoTime() - before < WINDOW.toNanos()) {
+                assertTrue(seen, "forgotten after " + (System.nanoTime() - before) / 1_000_000 + "ms");
+            }
+        }
+    }
+
+    @Test
+    void forgetsKeyOnceWindowAndOneSliceHavePassed() throws InterruptedException {
+        filter.add("evt_1");
+        long after = System.nanoTime();
+
+        // A key lives in the newest slice, which is cleared at most one slice after the window
+        while (System.nanoTime() - after < WINDOW.toNanos() + SLICE_NANOS) {
+            Thread.sleep(10);
+        }
+
+        assertFalse(filter.mightContain("evt_1"));
+        assertTrue(filter.add("evt_1"));
+    }
+
+    @Test
+    void forgetsEverythingAfterIdlingLongerThanRing() throws InterruptedException {
+        filter.add("evt_1");
+        filter.add("evt_2");
+
+        Thread.sleep(3 * WINDOW.toMillis());
+
+        assertTrue(filter.add("evt_1"));
+        assertTrue(filter.add("evt_2"));
+        assertTrue(filter.add("evt_3"));
+        assertFalse(filter.add("evt_3"));
+    }
+
+    @Test
+    void memoryMatchesSizingFormula() {
+        assertEquals(expectedBytes(100_000, 1e-6, 4),
+                DuplicateFilter.builder().build().getMemoryBytes());
+        assertEquals(expectedBytes(1_000_000, 1e-9, 8),
+                DuplicateFilter.builder().expectedKeys(1_000_000).falsePositiveRate(1e-9).slices(8).build()
+                        .getMemoryBytes());
+        // Tiny filters are rounded up to one 64-bit word per slice
+        assertEquals(2 * 8, DuplicateFilter.builder().expectedKeys(1).slices(1).build().getMemoryBytes());
+    }
+
+    /**
+     * {@code slices + 1} Bloom filters of {@code -n ln(p) / ln(2)^2} bits, rounded up to whole
+     * words, where each holds {@code n = expectedKeys / slices} keys at {@code p = rate / (slices + 1)}
+     */
+    private static long expectedBytes(long expectedKeys, double falsePositiveRate, int slices) {
+        long keysPerSlice = expectedKeys / slices;
+        double sliceRate = falsePositiveRate / (slices + 1);
+        long bits = (long) Math.ceil(-keysPerSlice * Math.log(sliceRate) / (Math.log(2) * Math.log(2)));
+        long words = (bits + 63) / 64;
+        return (slices + 1) * words * 8;
+    }
+}
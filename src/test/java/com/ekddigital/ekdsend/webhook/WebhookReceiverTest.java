@@ -0,0 +1,206 @@
+package com.ekddigital.ekdsend.webhook;
+
+import com.ekddigital.ekdsend.model.Email;
+import com.ekddigital.ekdsend.model.Sms;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WebhookReceiverTest {
+
+    private static final String SECRET = "whsec_test";
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private final OkHttpClient http = new OkHttpClient();
+    private final BlockingQueue<WebhookEvent<?>> received = new LinkedBlockingQueue<>();
+    private WebhookReceiver receiver;
+
+    @AfterEach
+    void tearDown() {
+        if (receiver != null) {
+            receiver.stop();
+        }
+    }
+
+    @Test
+    void acceptsValidSignature() throws Exception {
+        start(WebhookReceiver.builder().secret(SECRET));
+        long now = Instant.now().getEpochSecond();
+        String body = emailEvent("evt_1", "em_1", "delivered");
+
+        assertEquals(200, post(body, now, WebhookSignature.sign(SECRET, now, bytes(body))).code());
+
+        WebhookEvent<?> event = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals("evt_1", event.getId());
+        assertEquals("email.delivered", event.getType());
+        Email email = (Email) event.getData();
+        assertEquals("em_1", email.getId());
+        assertEquals("delivered", email.getStatus());
+    }
+
+    @Test
+    void rejectsBadSignature() throws Exception {
+        start(WebhookReceiver.builder().secret(SECRET));
+        long now = Instant.now().getEpochSecond();
+        String body = emailEvent("evt_1", "em_1", "delivered");
+
+        assertEquals(401, post(body, now, WebhookSignature.sign("whsec_other", now, bytes(body))).code());
+        // Signed for a different body
+        assertEquals(401, post(body, now, WebhookSignature.sign(SECRET, now, bytes(body + " "))).code());
+        assertEquals(401, post(body, now, null).code());
+        assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void rejectsStaleTimestamp() throws Exception {
+        start(WebhookReceiver.builder().secret(SECRET));
+        long stale = Instant.now().getEpochSecond() - 600;
+        String body = emailEvent("evt_1", "em_1", "delivered");
+
+        assertEquals(401, post(body, stale, WebhookSignature.sign(SECRET, stale, bytes(body))).code());
+        assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void parsesDataSentBeforeType() throws Exception {
+        start(WebhookReceiver.builder());
+        String body = "{\"data\":{\"id\":\"sms_1\",\"status\":\"failed\",\"to\":\"+15550100\"},"
+                + "\"id\":\"evt_2\",\"type\":\"sms.failed\",\"created_at\":\"2024-01-01T00:00:00Z\"}";
+
+        assertEquals(200, post(body).code());
+
+        WebhookEvent<?> event = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(Instant.parse("2024-01-01T00:00:00Z"), event.getCreatedAt());
+        Sms sms = (Sms) event.getData();
+        assertEquals("sms_1", sms.getId());
+        assertEquals("failed", sms.getStatus());
+        assertEquals("+15550100", sms.getTo());
+    }
+
+    @Test
+    void rejectsEventWithoutData() throws Exception {
+        start(WebhookReceiver.builder());
+
+        assertEquals(400, post("{\"type\":\"email.delivered\"}").code());
+        assertEquals(400, post("{\"id\":\"evt_1\",\"type\":\"sms.failed\",\"data\":null}").code());
+        // Types we don't handle are still acknowledged
+        assertEquals(200, post("{\"type\":\"domain.verified\"}").code());
+        assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void rejectsOversizeBody() throws Exception {
+        start(WebhookReceiver.builder().maxBodyBytes(256));
+        String body = emailEvent("evt_1", "em_1", "x".repeat(512));
+
+        // Refused from Content-Length, and while reading when the body is chunked
+        assertEquals(413, post(body).code());
+        assertEquals(413, send(new Request.Builder().url(url()).post(chunked(body)).build()).code());
+        assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void refusesWithRetryAfterWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        start(WebhookReceiver.builder().workers(1, 1).onEmail(event -> release.await()));
+        try {
+            // One event occupies the worker and one waits in the queue
+            assertEquals(200, post(emailEvent("evt_1", "em_1", "delivered")).code());
+            assertEquals(200, post(emailEvent("evt_2", "em_2", "delivered")).code());
+
+            Response refused = post(emailEvent("evt_3", "em_3", "delivered"));
+            assertEquals(503, refused.code());
+            assertEquals("1", refused.header("Retry-After"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void acknowledgesDuplicateWithoutNotifying() throws Exception {
+        start(WebhookReceiver.builder());
+        String body = emailEvent("evt_1", "em_1", "delivered");
+
+        assertEquals(200, post(body).code());
+        assertNotNull(received.poll(5, TimeUnit.SECONDS));
+
+        assertEquals(200, post(body).code());
+        assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(1, receiver.getDuplicateFilter().getDuplicateCount());
+    }
+
+    private void start(WebhookReceiver.Builder builder) throws IOException {
+        receiver = builder.listen("127.0.0.1", 0)
+                .onEmail(received::add)
+                .onSms(received::add)
+                .build()
+                .start();
+    }
+
+    private String url() {
+        return "http://127.0.0.1:" + receiver.getPort() + "/webhooks/ekdsend";
+    }
+
+    private Response post(String body) throws IOException {
+        return send(new Request.Builder().url(url()).post(RequestBody.create(body, JSON)).build());
+    }
+
+    private Response post(String body, long timestamp, String signature) throws IOException {
+        Request.Builder request = new Request.Builder()
+                .url(url())
+                .header(WebhookSignature.TIMESTAMP_HEADER, Long.toString(timestamp))
+                .post(RequestBody.create(body, JSON));
+        if (signature != null) {
+            request.header(WebhookSignature.SIGNATURE_HEADER, signature);
+        }
+        return send(request.build());
+    }
+
+    private Response send(Request request) throws IOException {
+        try (Response response = http.newCall(request).execute()) {
+            return response;
+        }
+    }
+
+    private static RequestBody chunked(String body) {
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return JSON;
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                sink.writeUtf8(body);
+            }
+        };
+    }
+
+    private static String emailEvent(String eventId, String emailId, String status) {
+        return "{\"id\":\"" + eventId + "\",\"type\":\"email." + status + "\",\"data\":{\"id\":\"" + emailId
+                + "\",\"status\":\"" + status + "\"}}";
+    }
+
+    private static byte[] bytes(String body) {
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+}